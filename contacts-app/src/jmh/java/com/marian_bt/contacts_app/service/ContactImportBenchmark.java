@@ -0,0 +1,83 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.ContactsAppApplication;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link ContactService#importContacts(InputStream)} into an
+ * in-memory H2 database in MySQL mode. In "insert" mode every iteration
+ * starts from an empty table; in "update" mode the fixture is imported once
+ * beforehand so every row matches an existing contact.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ContactImportBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"insert", "update"})
+    public String mode;
+
+    /** contacts.import.parallelism; e.g. -p parallelism=1,4,8,16 for a scaling curve. */
+    @Param({"1"})
+    public int parallelism;
+
+    private Path file;
+    private ConfigurableApplicationContext context;
+    private ContactService contactService;
+    private ContactRepository contactRepository;
+
+    @Setup(Level.Trial)
+    public void start() {
+        file = CsvFixtures.contacts(rows);
+        context = new SpringApplicationBuilder(ContactsAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--contacts.import.parallelism=" + parallelism,
+                        "--logging.level.root=WARN");
+        contactService = context.getBean(ContactService.class);
+        contactRepository = context.getBean(ContactRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepareTable() throws IOException {
+        contactRepository.deleteAllInBatch();
+        if ("update".equals(mode)) {
+            importFile();
+        }
+    }
+
+    @Benchmark
+    public int importFile() throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return contactService.importContacts(in);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
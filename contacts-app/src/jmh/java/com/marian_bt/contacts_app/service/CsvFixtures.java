@@ -0,0 +1,95 @@
+package com.marian_bt.contacts_app.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+
+/**
+ * Generates deterministic contact CSV files in the export layout (every value
+ * quoted, some with embedded commas and quotes). Files are written once to
+ * target/jmh-fixtures and reused by later runs.
+ */
+final class CsvFixtures {
+
+    static final String HEADER =
+            "id,title,firstName,lastName,gender,email,phone1,phone2," +
+                    "institution,faculty,studyDomain,persGroup,function,country," +
+                    "contactedByIngenium,coilExp,mobilityFin,createdAt,updatedAt";
+
+    private static final String[] FIRST_NAMES = {
+            "Ana", "Mihai", "Elena", "Andrei", "Ioana", "Radu", "Maria", "Stefan", "Zoë", "José"
+    };
+    private static final String[] LAST_NAMES = {
+            "Popescu", "Ionescu", "Dumitru", "Stan", "Gheorghe", "Müller", "O'Neil", "Van der Berg"
+    };
+    private static final String[] INSTITUTIONS = {
+            "Universitatea Politehnica", "University of Vienna", "Technical University, Munich",
+            "Ecole \"Centrale\" Lyon", "KU Leuven"
+    };
+    private static final String[] COUNTRIES = {"Romania", "Austria", "Germany", "France", "Belgium"};
+
+    private CsvFixtures() {
+    }
+
+    static Path contacts(int rows) {
+        Path file = Path.of("target", "jmh-fixtures", "contacts-" + rows + ".csv");
+        if (Files.exists(file)) {
+            return file;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), "contacts-", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                SplittableRandom random = new SplittableRandom(rows);
+                for (int i = 0; i < rows; i++) {
+                    writer.write(row(i, random));
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String row(int i, SplittableRandom random) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String[] values = {
+                "",
+                random.nextInt(4) == 0 ? "Dr." : "",
+                first,
+                last,
+                random.nextBoolean() ? "female" : "male",
+                "contact" + i + "@example.org",
+                "+40 7" + (10_000_000 + random.nextInt(89_999_999)),
+                random.nextInt(3) == 0 ? "" : "+43 6" + (10_000_000 + random.nextInt(89_999_999)),
+                INSTITUTIONS[random.nextInt(INSTITUTIONS.length)],
+                "Faculty of Engineering",
+                "Computer Science",
+                "Staff",
+                "Lecturer",
+                COUNTRIES[random.nextInt(COUNTRIES.length)],
+                Boolean.toString(random.nextBoolean()),
+                random.nextBoolean() ? "yes" : "no",
+                random.nextBoolean() ? "1" : "0",
+                "2024-03-01 10:15",
+                ""
+        };
+
+        StringBuilder sb = new StringBuilder(256);
+        for (int c = 0; c < values.length; c++) {
+            if (c > 0) sb.append(',');
+            sb.append('"').append(values[c].replace("\"", "\"\"")).append('"');
+        }
+        return sb.toString();
+    }
+}
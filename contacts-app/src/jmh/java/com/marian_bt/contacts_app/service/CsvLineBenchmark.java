@@ -0,0 +1,70 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record costs of the CSV import on a representative row, independent of
+ * file IO.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CsvLineBenchmark {
+
+    static final int RECORDS = 1000;
+
+    @State(Scope.Thread)
+    public static class Line {
+        char[] records;
+        ContactCsv.ColumnPlan plan;
+        String[] row;
+
+        @Setup
+        public void prepare() throws IOException {
+            String line = CsvFixtures.row(42, new SplittableRandom(42));
+            records = (line + "\r\n").repeat(RECORDS).toCharArray();
+            try (CsvReader header = new CsvReader(new StringReader(CsvFixtures.HEADER), ',')) {
+                header.next();
+                plan = ContactCsv.ColumnPlan.compile(ContactCsv.headerIndex(header));
+            }
+            try (CsvReader reader = new CsvReader(new StringReader(line), ',')) {
+                reader.next();
+                row = plan.read(reader);
+            }
+        }
+    }
+
+    /** Record splitting plus materializing the mapped columns. */
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void readRecords(Line state, Blackhole blackhole) throws IOException {
+        CsvReader reader = new CsvReader(new CharArrayReader(state.records), ',');
+        while (reader.next()) {
+            blackhole.consume(state.plan.read(reader));
+        }
+    }
+
+    @Benchmark
+    public Contact mapColumns(Line state) {
+        Contact contact = new Contact();
+        state.plan.apply(contact, state.row);
+        return contact;
+    }
+
+    @Benchmark
+    public void parseBooleans(Line state, Blackhole blackhole) {
+        blackhole.consume(ContactCsv.parseBooleanNullable(" yes "));
+        blackhole.consume(ContactCsv.parseBooleanNullable("0"));
+        blackhole.consume(ContactCsv.parseBooleanNullable("maybe"));
+    }
+}
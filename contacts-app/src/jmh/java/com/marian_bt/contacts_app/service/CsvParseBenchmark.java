@@ -0,0 +1,57 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse-side cost of a CSV import without the database: reading, splitting,
+ * header lookup and mapping onto {@link Contact}. Run with {@code -prof gc}
+ * for allocation rate (the profile's default arguments). Per-line costs are
+ * in {@link CsvLineBenchmark}.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class CsvParseBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        file = CsvFixtures.contacts(rows);
+    }
+
+    /** Whole file, as the import reads it; divide rows by the score for rows/ms. */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int parseFile(Blackhole blackhole) throws IOException {
+        int parsed = 0;
+        try (CsvReader reader = new CsvReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), ',')) {
+            reader.next();
+            ContactCsv.ColumnPlan plan = ContactCsv.ColumnPlan.compile(ContactCsv.headerIndex(reader));
+            while (reader.next()) {
+                String[] row = plan.read(reader);
+                Contact contact = new Contact();
+                contact.setEmail(ContactCsv.email(row));
+                plan.apply(contact, row);
+                blackhole.consume(contact);
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,52 @@
+package com.marian_bt.contacts_app.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import com.marian_bt.contacts_app.service.ContactCountCache;
+import com.marian_bt.contacts_app.service.ContactPageCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CONTACT_SEARCH_CACHE = "contactSearch";
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
+    /**
+     * Bounded cache for contact list/search pages. Evictions triggered by
+     * contact writes are deferred until the writing transaction commits, and
+     * so are a reader's puts; a page read before a write but put after its
+     * eviction is dropped by {@link ContactPageCache}.
+     * <p>
+     * Login lookups have a cache of their own (size and TTL from
+     * contacts.cache.user-details.spec), evicted when an admin changes a user.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${contacts.cache.search.spec}") String spec,
+                                     @Value("${contacts.cache.user-details.spec}") String userDetailsSpec,
+                                     ContactCountCache generations) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return CONTACT_SEARCH_CACHE.equals(name)
+                        ? new ContactPageCache(name, cache, isAllowNullValues(), generations)
+                        : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        caffeine.setCacheNames(List.of(CONTACT_SEARCH_CACHE));
+        caffeine.setCaffeineSpec(CaffeineSpec.parse(spec));
+        caffeine.setAllowNullValues(false);
+        caffeine.registerCustomCache(USER_DETAILS_CACHE, Caffeine.from(CaffeineSpec.parse(userDetailsSpec)).build());
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
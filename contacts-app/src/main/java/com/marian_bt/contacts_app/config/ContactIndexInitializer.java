@@ -0,0 +1,56 @@
+package com.marian_bt.contacts_app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class ContactIndexInitializer {
+    private static final Logger log = LoggerFactory.getLogger(ContactIndexInitializer.class);
+
+    static final String NAME_SORT_INDEX = "idx_contacts_lower_name";
+
+    /**
+     * Creates the functional index backing the default contact ordering
+     * (lower(last_name), lower(first_name), id), so sorted lists, exports and
+     * keyset pages are read in index order instead of being filesorted.
+     * JPA @Index cannot express functional key parts, hence the DDL here.
+     * Requires MySQL 8.0.13+; other databases are skipped.
+     */
+    @Bean
+    CommandLineRunner initContactIndexes(JdbcTemplate jdbcTemplate,
+                                         @Value("${contacts.schema.name-sort-index:true}") boolean enabled) {
+        return args -> {
+            if (!enabled) {
+                return;
+            }
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"MySQL".equalsIgnoreCase(product)) {
+                log.debug("Skipping {} on {}", NAME_SORT_INDEX, product);
+                return;
+            }
+
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics " +
+                            "WHERE table_schema = DATABASE() AND table_name = 'contacts' AND index_name = ?",
+                    Integer.class, NAME_SORT_INDEX);
+            if (existing != null && existing > 0) {
+                return;
+            }
+
+            try {
+                jdbcTemplate.execute("CREATE INDEX " + NAME_SORT_INDEX +
+                        " ON contacts ((LOWER(last_name)), (LOWER(first_name)), id)");
+                log.info("Created index {} on contacts", NAME_SORT_INDEX);
+            } catch (RuntimeException e) {
+                log.warn("Could not create index {}: {}", NAME_SORT_INDEX, e.getMessage());
+            }
+        };
+    }
+}
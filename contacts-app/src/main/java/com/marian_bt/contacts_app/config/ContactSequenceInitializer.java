@@ -0,0 +1,68 @@
+package com.marian_bt.contacts_app.config;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class ContactSequenceInitializer {
+    private static final Logger log = LoggerFactory.getLogger(ContactSequenceInitializer.class);
+
+    static final String CONTACT_SEQUENCE = "contacts_seq";
+
+    /**
+     * Moves the contact id sequence past the highest existing id. Contact ids
+     * are handed out in pooled blocks of {@link Contact#ID_ALLOCATION_SIZE},
+     * where the stored value is the upper end of the next block; rows written
+     * with explicit ids (restores, imports from older versions) or a sequence
+     * that was reset would otherwise make new inserts collide. The sequence is
+     * only ever moved forward. On MySQL the sequence is emulated by a
+     * one-row table; other databases are skipped.
+     */
+    @Bean
+    CommandLineRunner alignContactSequence(JdbcTemplate jdbcTemplate,
+                                           @Value("${contacts.schema.align-id-sequence:true}") boolean enabled) {
+        return args -> {
+            if (!enabled) {
+                return;
+            }
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+
+            try {
+                Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM contacts", Long.class);
+                if (maxId == null) {
+                    return;
+                }
+                // the next block handed out is (next - allocation, next]
+                long required = maxId + Contact.ID_ALLOCATION_SIZE;
+
+                if ("MySQL".equalsIgnoreCase(product)) {
+                    int updated = jdbcTemplate.update(
+                            "UPDATE " + CONTACT_SEQUENCE + " SET next_val = ? WHERE next_val < ?", required, required);
+                    if (updated > 0) {
+                        log.info("Moved {} to {} (max contact id {})", CONTACT_SEQUENCE, required, maxId);
+                    }
+                } else if ("H2".equalsIgnoreCase(product)) {
+                    Long next = jdbcTemplate.queryForObject(
+                            "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE UPPER(SEQUENCE_NAME) = ?",
+                            Long.class, CONTACT_SEQUENCE.toUpperCase());
+                    if (next != null && next < required) {
+                        jdbcTemplate.execute("ALTER SEQUENCE " + CONTACT_SEQUENCE + " RESTART WITH " + required);
+                        log.info("Moved {} to {} (max contact id {})", CONTACT_SEQUENCE, required, maxId);
+                    }
+                } else {
+                    log.debug("Skipping {} alignment on {}", CONTACT_SEQUENCE, product);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not align {}: {}", CONTACT_SEQUENCE, e.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.marian_bt.contacts_app.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Routing hint for reads whose results get cached: inside {@code call}, even a
+ * read-only transaction gets a primary connection from
+ * {@link ReadReplicaRoutingDataSource}, so a lagging replica row cannot end
+ * up in a cache. The connection is picked at a transaction's first
+ * statement, so the hint has to be in place before that.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> reads) {
+        if (isActive()) {
+            return reads.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    static boolean isActive() {
+        return PINNED.get() != null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.marian_bt.contacts_app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to a replica connection pool when
+ * {@code contacts.datasource.replica.url} is set; writes, and anything outside
+ * a read-only transaction, stay on the primary ({@code spring.datasource.*}).
+ * Without a replica URL the auto-configured single pool is used.
+ * <p>
+ * Replica rows may lag the primary, so they must not outlive the request that
+ * read them: reads that fill a cache are pinned to the primary with
+ * {@link PrimaryReads}, and read-only transactions do not store entities in
+ * the second-level cache unless a read asks for it.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("!'${contacts.datasource.replica.url:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${contacts.datasource.replica.url}") String url,
+                                              @Value("${contacts.datasource.replica.username:}") String username,
+                                              @Value("${contacts.datasource.replica.password:}") String password,
+                                              @Value("${contacts.datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setUsername(username.isBlank() ? properties.determineUsername() : username);
+        dataSource.setPassword(password.isBlank() ? properties.determinePassword() : password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, replica));
+    }
+
+    @Bean
+    public TransactionExecutionListener replicaReadsBypassSecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        return new TransactionExecutionListener() {
+            @Override
+            public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+                if (beginFailure == null && transaction.isNewTransaction() && transaction.isReadOnly()) {
+                    setCacheStoreMode(CacheStoreMode.BYPASS);
+                }
+            }
+
+            @Override
+            public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+                restore(transaction);
+            }
+
+            @Override
+            public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+                restore(transaction);
+            }
+
+            // an open-in-view EntityManager outlives the transaction
+            private void restore(TransactionExecution transaction) {
+                if (transaction.isNewTransaction() && transaction.isReadOnly()) {
+                    setCacheStoreMode(CacheStoreMode.USE);
+                }
+            }
+
+            private void setCacheStoreMode(CacheStoreMode mode) {
+                EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+                if (entityManager != null) {
+                    entityManager.setCacheStoreMode(mode);
+                }
+            }
+        };
+    }
+}
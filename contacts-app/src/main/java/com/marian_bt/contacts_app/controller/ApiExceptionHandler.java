@@ -0,0 +1,122 @@
+package com.marian_bt.contacts_app.controller;
+
+import com.marian_bt.contacts_app.service.ContactExportException;
+import com.marian_bt.contacts_app.service.ContactNotFoundException;
+import com.marian_bt.contacts_app.service.UnknownContactFieldException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.core.PropertyReferenceException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON errors (RFC 9457 problem details) for the API controllers, which would
+ * otherwise get the HTML error pages of {@link GlobalExceptionHandler}.
+ * Spring MVC's own exceptions (bad JSON, missing parameters, ...) keep the
+ * statuses {@link ResponseEntityExceptionHandler} gives them.
+ */
+@RestControllerAdvice(assignableTypes = {ContactApiController.class, ApiTokenController.class})
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ApiExceptionHandler extends ResponseEntityExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    @ExceptionHandler(ContactNotFoundException.class)
+    public ProblemDetail handleContactNotFound(ContactNotFoundException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @Override
+    protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
+                                                                  HttpHeaders headers, HttpStatusCode status,
+                                                                  WebRequest request) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (FieldError error : ex.getBindingResult().getFieldErrors()) {
+            errors.putIfAbsent(error.getField(), error.getDefaultMessage());
+        }
+        ProblemDetail problem = ex.getBody();
+        problem.setDetail("Invalid contact");
+        problem.setProperty("errors", errors);
+        return handleExceptionInternal(ex, problem, headers, status, request);
+    }
+
+    @ExceptionHandler(UnknownContactFieldException.class)
+    public ProblemDetail handleUnknownField(UnknownContactFieldException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(PropertyReferenceException.class)
+    public ProblemDetail handleUnknownSortProperty(PropertyReferenceException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                "Unknown sort property: '" + ex.getPropertyName() + "'");
+    }
+
+    /** Other argument errors may come from anywhere below, so their messages are not passed on. */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail handleBadRequest(IllegalArgumentException ex) {
+        log.warn("API request rejected: {}", ex.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Invalid request");
+    }
+
+    /**
+     * The email is the only unique key of a contact the API lets clients set,
+     * so a unique violation means a duplicate email. Anything else (values too
+     * long for their column, for instance) is reported without the database's
+     * own message.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ProblemDetail handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        log.warn("API write rejected by the database: {}", ex.getMostSpecificCause().getMessage());
+        if (isUniqueViolation(ex)) {
+            return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "A contact with this email already exists");
+        }
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "The contact could not be stored");
+    }
+
+    private static boolean isUniqueViolation(DataIntegrityViolationException ex) {
+        if (ex instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+            }
+        }
+        return false;
+    }
+
+    @ExceptionHandler(ContactExportException.class)
+    public ProblemDetail handleExportRefused(ContactExportException ex, HttpServletResponse response) {
+        // drop the download headers already set for the file
+        response.reset();
+        return ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_CONTENT, ex.getMessage());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ProblemDetail handleException(Exception ex, HttpServletResponse response) throws Exception {
+        if (response.isCommitted()) {
+            // an export is cut off midway: let the container abort the connection
+            throw ex;
+        }
+        log.error("Unexpected API error", ex);
+        return ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+    }
+}
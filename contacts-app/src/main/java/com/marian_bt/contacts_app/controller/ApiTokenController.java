@@ -0,0 +1,25 @@
+package com.marian_bt.contacts_app.controller;
+
+import com.marian_bt.contacts_app.security.ApiTokenService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exchanges HTTP Basic credentials for an API bearer token, so scripted
+ * clients pay for one password check per token rather than per request.
+ */
+@RestController
+public class ApiTokenController {
+
+    private final ApiTokenService tokenService;
+
+    public ApiTokenController(ApiTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @PostMapping("/api/token")
+    public ApiTokenService.ApiToken token(Authentication authentication) {
+        return tokenService.issue(authentication);
+    }
+}
@@ -3,6 +3,7 @@ package com.marian_bt.contacts_app.controller;
 import com.marian_bt.contacts_app.domain.AppUser;
 import com.marian_bt.contacts_app.domain.UserRole;
 import com.marian_bt.contacts_app.repository.AppUserRepository;
+import com.marian_bt.contacts_app.security.DatabaseUserDetailsService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -25,10 +26,13 @@ public class AppUserController {
 
     private final AppUserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final DatabaseUserDetailsService userDetailsService;
 
-    public AppUserController(AppUserRepository appUserRepository, PasswordEncoder passwordEncoder) {
+    public AppUserController(AppUserRepository appUserRepository, PasswordEncoder passwordEncoder,
+                             DatabaseUserDetailsService userDetailsService) {
         this.userRepository = appUserRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
     }
 
     @GetMapping
@@ -148,6 +152,7 @@ public class AppUserController {
         }
 
         userRepository.save(user);
+        userDetailsService.evict(user.getUsername());
 
         redirectAttributes.addFlashAttribute(
                 "message",
@@ -168,6 +173,7 @@ public class AppUserController {
 
         user.setEnabled(!user.isEnabled());
         userRepository.save(user);
+        userDetailsService.evict(user.getUsername());
 
         redirectAttributes.addFlashAttribute(
                 "message",
@@ -189,6 +195,7 @@ public class AppUserController {
 
         user.setRole(role);
         userRepository.save(user);
+        userDetailsService.evict(user.getUsername());
 
         redirectAttributes.addFlashAttribute(
                 "message",
@@ -229,6 +236,7 @@ public class AppUserController {
         }
 
         userRepository.delete(user);
+        userDetailsService.evict(user.getUsername());
 
         redirectAttributes.addFlashAttribute(
                 "message",
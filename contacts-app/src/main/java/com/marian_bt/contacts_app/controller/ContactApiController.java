@@ -0,0 +1,114 @@
+package com.marian_bt.contacts_app.controller;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.service.ContactExportFormat;
+import com.marian_bt.contacts_app.service.ContactField;
+import com.marian_bt.contacts_app.service.ContactSearchCriteria;
+import com.marian_bt.contacts_app.service.ContactService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contacts for API clients, authenticated with bearer tokens (see
+ * {@code SecurityConfig}); no HTTP session is created. Reads take a
+ * {@code fields} parameter and select only those columns; lists default to
+ * {@link ContactField#SUMMARY} and are paged without a total count.
+ */
+@RestController
+@RequestMapping("/api/v1/contacts")
+public class ContactApiController {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final EnumSet<ContactField> ALL_FIELDS = EnumSet.allOf(ContactField.class);
+
+    private final ContactService contactService;
+
+    public ContactApiController(ContactService contactService) {
+        this.contactService = contactService;
+    }
+
+    @GetMapping
+    public Map<String, Object> listContacts(@PageableDefault(size = 50) Pageable pageable,
+                                            @RequestParam(value = "fields", required = false) String fields) {
+        return searchContacts(new ContactSearchCriteria(), pageable, fields);
+    }
+
+    @GetMapping("/search")
+    public Map<String, Object> searchContacts(@ModelAttribute ContactSearchCriteria criteria,
+                                              @PageableDefault(size = 50) Pageable pageable,
+                                              @RequestParam(value = "fields", required = false) String fields) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            pageable = PageRequest.of(pageable.getPageNumber(), MAX_PAGE_SIZE, pageable.getSort());
+        }
+        Slice<Map<String, Object>> slice = contactService.findContactFields(
+                criteria, ContactField.parse(fields, ContactField.SUMMARY), pageable);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("content", slice.getContent());
+        body.put("page", slice.getNumber());
+        body.put("size", slice.getSize());
+        body.put("hasNext", slice.hasNext());
+        return body;
+    }
+
+    @GetMapping("/{id}")
+    public Map<String, Object> getContact(@PathVariable Long id,
+                                          @RequestParam(value = "fields", required = false) String fields) {
+        return contactService.getContactFields(id, ContactField.parse(fields, ALL_FIELDS));
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createContact(@Valid @RequestBody Contact contact,
+                                                             Authentication authentication) {
+        contact.setId(null);
+        Contact saved = contactService.createContact(contact, authentication.getName());
+        return ResponseEntity
+                .created(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").build(saved.getId()))
+                .body(ContactField.project(saved, List.copyOf(ALL_FIELDS)));
+    }
+
+    @PutMapping("/{id}")
+    public Map<String, Object> updateContact(@PathVariable Long id,
+                                             @Valid @RequestBody Contact contact,
+                                             Authentication authentication) {
+        Contact saved = contactService.updateContact(id, contact, authentication.getName());
+        return ContactField.project(saved, List.copyOf(ALL_FIELDS));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteContact(@PathVariable Long id, Authentication authentication) {
+        contactService.deleteContact(id, authentication.getName());
+    }
+
+    /** Same export as /contacts/export (format parameter or Accept header). */
+    @GetMapping("/export")
+    public void exportContacts(@ModelAttribute ContactSearchCriteria criteria,
+                               @RequestParam(value = "format", required = false) String format,
+                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                               HttpServletResponse response) throws IOException {
+
+        ContactExportFormat exportFormat = ContactExportFormat.forName(format)
+                .orElseGet(() -> ContactExportFormat.forAccept(accept));
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=\"contacts" + exportFormat.getExtension() + "\"");
+
+        contactService.exportContacts(criteria, exportFormat, response.getOutputStream());
+    }
+}
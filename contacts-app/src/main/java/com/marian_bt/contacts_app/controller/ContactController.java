@@ -1,14 +1,27 @@
 package com.marian_bt.contacts_app.controller;
 
 import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.service.ContactCursor;
+import com.marian_bt.contacts_app.service.ContactExportFormat;
 import com.marian_bt.contacts_app.service.ContactImportException;
+import com.marian_bt.contacts_app.service.ContactImportFormat;
+import com.marian_bt.contacts_app.service.ContactImportJob;
+import com.marian_bt.contacts_app.service.ContactImportJobService;
 import com.marian_bt.contacts_app.service.ContactSearchCriteria;
 import com.marian_bt.contacts_app.service.ContactService;
+import com.marian_bt.contacts_app.service.ContactSummary;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -18,24 +31,24 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Locale;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("contacts")
 public class ContactController {
 
     private final ContactService contactService;
+    private final ContactImportJobService importJobService;
 
-    public ContactController(ContactService contactService) {
+    public ContactController(ContactService contactService, ContactImportJobService importJobService) {
         this.contactService = contactService;
+        this.importJobService = importJobService;
     }
 
 
@@ -48,11 +61,19 @@ public class ContactController {
     }
 
     @GetMapping
-    public String listContacts(@PageableDefault(size = 20) Pageable pageable, Model model) {
-        Page<Contact> page = contactService.getAllContacts(pageable);
-        model.addAttribute("contactsPage", page);
-        model.addAttribute("contacts", page.getContent());
-        model.addAttribute("criteria", new ContactSearchCriteria());
+    public String listContacts(@PageableDefault(size = 20) Pageable pageable,
+                               @RequestParam(value = "cursor", required = false) String cursor,
+                               HttpServletRequest request,
+                               Model model) {
+        ContactSearchCriteria criteria = new ContactSearchCriteria();
+        if (cursor != null) {
+            addScrollResults(criteria, cursor, pageable, request, model);
+        } else {
+            Page<ContactSummary> page = contactService.getAllContacts(pageable);
+            model.addAttribute("contactsPage", page);
+            model.addAttribute("contacts", page.getContent());
+        }
+        model.addAttribute("criteria", criteria);
         model.addAttribute("baseUrl", "/contacts");
         return "contacts/list";
     }
@@ -60,17 +81,50 @@ public class ContactController {
     @GetMapping("/search")
     public String searchContacts(@ModelAttribute("criteria") ContactSearchCriteria criteria,
                                  @PageableDefault(size = 20) Pageable pageable,
+                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                 HttpServletRequest request,
                                  Model model) {
 
-
-        Page<Contact> page = contactService.searchContacts(criteria, pageable);
-        model.addAttribute("contactsPage", page);
-        model.addAttribute("contacts", page.getContent());
+        if (cursor != null) {
+            addScrollResults(criteria, cursor, pageable, request, model);
+        } else {
+            Page<ContactSummary> page = contactService.searchContacts(criteria, pageable);
+            model.addAttribute("contactsPage", page);
+            model.addAttribute("contacts", page.getContent());
+        }
         model.addAttribute("criteria", criteria);
         model.addAttribute("baseUrl", "/contacts/search");
         return "contacts/list";
     }
 
+    /*
+     * Keyset ("cursor") mode: no page numbers and no total count, but every page
+     * costs the same no matter how deep the user scrolls. An empty cursor
+     * parameter starts at the beginning.
+     */
+    private void addScrollResults(ContactSearchCriteria criteria, String cursor, Pageable pageable,
+                                  HttpServletRequest request, Model model) {
+        Slice<ContactSummary> slice = contactService.scrollContacts(
+                criteria, ContactCursor.parse(cursor), pageable.getPageSize());
+
+        model.addAttribute("contactsSlice", slice);
+        model.addAttribute("contacts", slice.getContent());
+
+        // keep the search filters in the paging links
+        UriComponentsBuilder current = UriComponentsBuilder.fromPath(request.getRequestURI());
+        request.getParameterMap().forEach((name, values) -> current.queryParam(name, (Object[]) values));
+        current.replaceQueryParam("page");
+        model.addAttribute("firstPageUrl", current.cloneBuilder()
+                .replaceQueryParam("cursor", "")
+                .encode().build().toUriString());
+        if (slice.hasNext()) {
+            ContactSummary last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            model.addAttribute("nextPageUrl", current.cloneBuilder()
+                    .replaceQueryParam("cursor", ContactCursor.of(last).encode())
+                    .encode().build().toUriString());
+        }
+    }
+
 
     @GetMapping("/new")
     public String ShowCreateContactForm(Model model) {
@@ -123,120 +177,65 @@ public class ContactController {
         return "contacts/detail";
     }
 
+    /**
+     * Exports the contacts matching the search as CSV (default), gzip-compressed
+     * CSV, NDJSON or XLSX, chosen by {@code format} or else the Accept header.
+     * The response is streamed without a Content-Length, i.e. chunked.
+     */
     @GetMapping("/export")
     public void exportContacts(@ModelAttribute ContactSearchCriteria criteria,
+                               @RequestParam(value = "format", required = false) String format,
+                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
                                HttpServletResponse response) throws IOException {
 
         if (criteria == null) {
             criteria = new ContactSearchCriteria();
         }
 
-        List<Contact> contacts = contactService.searchContacts(criteria);
-
-        response.setContentType("text/csv;charset=UTF-8");
+        ContactExportFormat exportFormat = ContactExportFormat.forName(format)
+                .orElseGet(() -> ContactExportFormat.forAccept(accept));
+        response.setContentType(exportFormat.getContentType());
 
         DateTimeFormatter fileDtf = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm");
-        String fileName = "contacts-" + LocalDateTime.now().format(fileDtf) + ".csv";
+        String fileName = "contacts-" + LocalDateTime.now().format(fileDtf) + exportFormat.getExtension();
         response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
 
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-
-        try (PrintWriter writer = response.getWriter()) {
-
-
-            writer.println(
-                    "id,title,firstName,lastName,gender,email,phone1,phone2," +
-                            "institution,faculty,studyDomain,persGroup,function,country," +
-                            "contactedByIngenium,coilExp,mobilityFin,createdAt,updatedAt"
-            );
-
-            for (Contact c : contacts) {
-                writer.print(safe(c.getId()));                   writer.print(',');
-                writer.print(csv(c.getTitle()));                 writer.print(',');
-                writer.print(csv(c.getFirstName()));             writer.print(',');
-                writer.print(csv(c.getLastName()));              writer.print(',');
-                writer.print(csv(c.getGender()));                writer.print(',');
-                writer.print(csv(c.getEmail()));                 writer.print(',');
-                writer.print(csv(c.getPhone1()));                writer.print(',');
-                writer.print(csv(c.getPhone2()));                writer.print(',');
-                writer.print(csv(c.getInstitution()));           writer.print(',');
-                writer.print(csv(c.getFaculty()));               writer.print(',');
-                writer.print(csv(c.getStudyDomain()));           writer.print(',');
-                writer.print(csv(c.getPersGroup()));             writer.print(',');
-                writer.print(csv(c.getFunction()));              writer.print(',');
-                writer.print(csv(c.getCountry()));               writer.print(',');
-
-
-                writer.print(csv(Boolean.toString(c.isContactedByIngenium()))); writer.print(',');
-
-                writer.print(csv(Boolean.toString(c.isCoilExp())));             writer.print(',');
-                writer.print(csv(Boolean.toString(c.isMobilityFin())));         writer.print(',');
-
-                LocalDateTime createdAt = c.getCreatedAt();
-                LocalDateTime updatedAt = c.getUpdatedAt();
-
-                writer.print(csv(createdAt != null ? dtf.format(createdAt) : ""));
-                writer.print(',');
-                writer.print(csv(updatedAt != null ? dtf.format(updatedAt) : ""));
-
-                writer.println();
-            }
-        }
-    }
-
-    private String safe(Object value) {
-        return value == null ? "" : value.toString();
+        // rows are written as they are read from the database; nothing is buffered beyond one output buffer
+        contactService.exportContacts(criteria, exportFormat, response.getOutputStream());
     }
 
-    private String csv(String value) {
-        if (value == null) return "\"\"";
-        String escaped = value.replace("\"", "\"\"");
-        return "\"" + escaped + "\"";
-    }
-
-
     @GetMapping("/import")
     @PreAuthorize("hasRole('ADMIN')")
-    public String showImportForm() {
+    public String showImportForm(Model model) {
+        model.addAttribute("resumableJobs", importJobService.findResumableJobs());
         return "contacts/import";
     }
 
     @PostMapping("/import")
     @PreAuthorize("hasRole('ADMIN')")
     public String handleImport(@RequestParam("file") MultipartFile file,
+                               @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun,
                                RedirectAttributes redirectAttributes) {
 
         if (file == null || file.isEmpty()) {
             redirectAttributes.addFlashAttribute("errorMessage",
-                    "Please select a CSV file to upload.");
+                    "Please select a file to upload.");
             return "redirect:/contacts/import";
         }
 
         String filename = file.getOriginalFilename();
-        if (filename == null || !filename.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+        if (ContactImportFormat.forFileName(filename).isEmpty()) {
             redirectAttributes.addFlashAttribute("errorMessage",
-                    "The uploaded file must be a .csv file.");
+                    "The uploaded file must be a .csv, .csv.gz, .zip or .xlsx file.");
             return "redirect:/contacts/import";
         }
 
-        try (InputStream is = file.getInputStream()) {
-
-            int imported = contactService.importContacts(is);
-
-            if (imported > 0) {
-                redirectAttributes.addFlashAttribute("message",
-                        imported + " contacts imported successfully.");
-            } else {
-                // File was syntactically OK, but no usable rows (e.g. no email values)
-                redirectAttributes.addFlashAttribute("message",
-                        "The file was processed, but no contacts were imported. " +
-                                "Make sure there is an 'email' column and that rows have email values.");
-            }
-
-            return "redirect:/contacts";
+        try {
+            ContactImportJob job = importJobService.submit(file, dryRun);
+            return "redirect:/contacts/import/" + job.getId();
 
         } catch (ContactImportException e) {
-            // Domain-level errors (missing headers, invalid values, etc.)
+            // Import queue is full
             redirectAttributes.addFlashAttribute("errorMessage",
                     "Import failed: " + e.getMessage());
             return "redirect:/contacts/import";
@@ -249,4 +248,54 @@ public class ContactController {
         }
     }
 
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public String showImportStatus(@PathVariable("jobId") String jobId,
+                                   Model model,
+                                   RedirectAttributes redirectAttributes) {
+        Optional<ContactImportJob> job = importJobService.findJob(jobId);
+        if (job.isEmpty()) {
+            redirectAttributes.addFlashAttribute("errorMessage",
+                    "Import job " + jobId + " does not exist or has expired.");
+            return "redirect:/contacts/import";
+        }
+        model.addAttribute("job", job.get());
+        return "contacts/import-status";
+    }
+
+    @PostMapping("/import/{jobId}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public String resumeImport(@PathVariable("jobId") String jobId,
+                               RedirectAttributes redirectAttributes) {
+        try {
+            importJobService.resume(jobId);
+            return "redirect:/contacts/import/" + jobId;
+        } catch (ContactImportException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/contacts/import";
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("errorMessage",
+                    "Could not read the spooled file: " + e.getMessage());
+            return "redirect:/contacts/import";
+        }
+    }
+
+    @GetMapping("/import/{jobId}/rejects")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Resource> downloadRejects(@PathVariable("jobId") String jobId) {
+        return importJobService.findRejects(jobId)
+                .map(path -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("text/csv;charset=UTF-8"))
+                        .header("Content-Disposition", "attachment; filename=\"rejected-rows.csv\"")
+                        .<Resource>body(new FileSystemResource(path)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/import/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<ContactImportJob> getImportStatus(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.of(importJobService.findJob(jobId));
+    }
+
 }
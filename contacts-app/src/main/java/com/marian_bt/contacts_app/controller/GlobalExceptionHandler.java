@@ -1,9 +1,13 @@
 package com.marian_bt.contacts_app.controller;
 
+import com.marian_bt.contacts_app.service.ContactExportException;
 import com.marian_bt.contacts_app.service.ContactNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.servlet.ModelAndView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,8 +24,23 @@ public class GlobalExceptionHandler {
         return "error/contact-not-found";
     }
 
+    @ExceptionHandler(ContactExportException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_CONTENT)
+    public String handleContactExportException(ContactExportException ex, HttpServletResponse response, Model model){
+        log.warn("Export refused: {}", ex.getMessage());
+        // drop the download headers already set for the file
+        response.reset();
+        model.addAttribute("message", ex.getMessage());
+        return "error/generic-error";
+    }
+
     @ExceptionHandler(Exception.class)
-    public String handleException(Exception ex, Model model){
+    public String handleException(Exception ex, HttpServletResponse response, Model model) throws Exception {
+        if (response.isCommitted()) {
+            // part of a download is already sent: let the container abort the connection
+            // rather than append an error page to the file
+            throw ex;
+        }
         log.error("Unexpected error occurred", ex);
         model.addAttribute("message", "An unexpected error occurred");
         return "error/generic-error";
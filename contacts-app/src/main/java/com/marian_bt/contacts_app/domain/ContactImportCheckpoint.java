@@ -0,0 +1,125 @@
+package com.marian_bt.contacts_app.domain;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * How far a background import got: one row per job and partition (writer
+ * thread), counting the data rows of that partition committed so far. The
+ * counter is advanced in the same transaction as the chunk it describes, so
+ * it never runs ahead of or behind the contacts table.
+ */
+@Entity
+@Table(name = "contact_import_checkpoints")
+@IdClass(ContactImportCheckpoint.Key.class)
+public class ContactImportCheckpoint {
+
+    public static final int MAX_FAILURE_LENGTH = 1000;
+
+    @Id
+    @Column(length = 36)
+    private String jobId;
+
+    @Id
+    private int partitionNo;
+
+    /** Number of partitions the import was started with; a resume must use the same. */
+    @Column(nullable = false)
+    private int partitions;
+
+    private String fileName;
+
+    /** SHA-256 of the spooled upload, hex encoded. */
+    @Column(nullable = false, length = 64)
+    private String fileHash;
+
+    @Column(length = 100)
+    private String submittedBy;
+
+    @Column(nullable = false)
+    private long committedRows;
+
+    private LocalDateTime updatedAt;
+
+    /** Why the last run failed; null while it runs, so a checkpoint without one was cut off by a shutdown. */
+    @Column(length = ContactImportCheckpoint.MAX_FAILURE_LENGTH)
+    private String failure;
+
+    public ContactImportCheckpoint() {
+    }
+
+    public ContactImportCheckpoint(String jobId, int partitionNo, int partitions,
+                                   String fileName, String fileHash, String submittedBy) {
+        this.jobId = jobId;
+        this.partitionNo = partitionNo;
+        this.partitions = partitions;
+        this.fileName = fileName;
+        this.fileHash = fileHash;
+        this.submittedBy = submittedBy;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public int getPartitionNo() {
+        return partitionNo;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    public long getCommittedRows() {
+        return committedRows;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public static class Key implements Serializable {
+        private String jobId;
+        private int partitionNo;
+
+        public Key() {
+        }
+
+        public Key(String jobId, int partitionNo) {
+            this.jobId = jobId;
+            this.partitionNo = partitionNo;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return partitionNo == key.partitionNo && Objects.equals(jobId, key.jobId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(jobId, partitionNo);
+        }
+    }
+}
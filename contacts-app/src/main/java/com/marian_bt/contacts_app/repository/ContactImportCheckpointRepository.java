@@ -0,0 +1,35 @@
+package com.marian_bt.contacts_app.repository;
+
+import com.marian_bt.contacts_app.domain.ContactImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ContactImportCheckpointRepository
+        extends JpaRepository<ContactImportCheckpoint, ContactImportCheckpoint.Key> {
+
+    List<ContactImportCheckpoint> findByJobIdOrderByPartitionNo(String jobId);
+
+    /** Increments in the database, so concurrent partitions never overwrite each other. */
+    @Modifying
+    @Query("UPDATE ContactImportCheckpoint c SET c.committedRows = c.committedRows + :rows, c.updatedAt = :now " +
+            "WHERE c.jobId = :jobId AND c.partitionNo = :partitionNo")
+    int advance(@Param("jobId") String jobId,
+                @Param("partitionNo") int partitionNo,
+                @Param("rows") long rows,
+                @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ContactImportCheckpoint c SET c.failure = :failure, c.updatedAt = :now WHERE c.jobId = :jobId")
+    int recordFailure(@Param("jobId") String jobId,
+                      @Param("failure") String failure,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM ContactImportCheckpoint c WHERE c.jobId = :jobId")
+    int deleteByJobId(@Param("jobId") String jobId);
+}
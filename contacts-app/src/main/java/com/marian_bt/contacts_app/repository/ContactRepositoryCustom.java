@@ -0,0 +1,52 @@
+package com.marian_bt.contacts_app.repository;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ContactRepositoryCustom {
+
+    /**
+     * Forward-only, read-only stream over the contacts matching {@code spec}.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    Stream<Contact> streamAll(Specification<Contact> spec, Sort sort);
+
+    /**
+     * Contacts whose email, compared case-insensitively, is one of
+     * {@code lowerCaseEmails}. On MySQL the column's case-insensitive collation
+     * does the matching, so the lookup can use the email index.
+     */
+    List<Contact> findByLowerCaseEmailIn(Collection<String> lowerCaseEmails);
+
+    /**
+     * Selects only the given attributes of the contacts matching {@code spec}:
+     * one row per contact, values in the order of {@code attributes}. Fetches
+     * up to {@code pageable.getPageSize() + 1} rows, so callers can tell
+     * whether there is a next page without counting.
+     */
+    List<Tuple> findAttributes(Specification<Contact> spec, List<String> attributes, Pageable pageable);
+
+    /**
+     * Whether {@link #upsertByEmail} can run on this database (MySQL/MariaDB or H2
+     * with a sequence-based contact id).
+     */
+    boolean supportsBulkUpsert();
+
+    /**
+     * Inserts or updates the contacts by email (case-insensitive) with multi-row
+     * native statements, {@code batchSize} rows at a time, bypassing the
+     * persistence context, entity listeners and bean validation. Inserts write
+     * every upsertable attribute plus the audit columns as given on the contact;
+     * updates only write {@code updatedAttributes} and updatedAt/updatedBy.
+     * Emails must be unique within the list. On return every contact carries its
+     * database id. Callers are responsible for evicting cached Contact state.
+     */
+    void upsertByEmail(List<Contact> contacts, Collection<String> updatedAttributes, int batchSize);
+}
@@ -0,0 +1,196 @@
+package com.marian_bt.contacts_app.repository;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class ContactRepositoryImpl implements ContactRepositoryCustom {
+
+    /*
+     * On MySQL the fetch size is only honoured with useCursorFetch=true on the
+     * JDBC URL; otherwise the driver buffers the whole result set client-side.
+     */
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    ContactRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Stream<Contact> streamAll(Specification<Contact> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Contact> query = cb.createQuery(Contact.class);
+        Root<Contact> root = query.from(Contact.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        return entityManager.createQuery(query.select(root))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<Tuple> findAttributes(Specification<Contact> spec, List<String> attributes, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Contact> root = query.from(Contact.class);
+
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute));
+        }
+        query.select(cb.tuple(selections.toArray(Selection[]::new)));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+    }
+
+    @Override
+    public List<Contact> findByLowerCaseEmailIn(Collection<String> lowerCaseEmails) {
+        // LOWER(email) would rule out idx_contacts_email; MySQL's _ci collation already ignores case
+        String match = isMySql() ? "c.email IN :emails" : "LOWER(c.email) IN :emails";
+        return entityManager.createQuery("SELECT c FROM Contact c WHERE " + match, Contact.class)
+                .setParameter("emails", lowerCaseEmails)
+                .getResultList();
+    }
+
+    @Override
+    public boolean supportsBulkUpsert() {
+        SessionFactoryImplementor factory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = factory.getJdbcServices().getDialect();
+        return (dialect instanceof MySQLDialect || dialect instanceof H2Dialect)
+                && idGenerator(factory) instanceof BeforeExecutionGenerator;
+    }
+
+    @Override
+    public void upsertByEmail(List<Contact> contacts, Collection<String> updatedAttributes, int batchSize) {
+        if (contacts.isEmpty()) {
+            return;
+        }
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        boolean mysql = factory.getJdbcServices().getDialect() instanceof MySQLDialect;
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) idGenerator(factory);
+
+        entityManager.flush();
+        Session hibernate = entityManager.unwrap(Session.class);
+        for (int from = 0; from < contacts.size(); from += batchSize) {
+            List<Contact> batch = contacts.subList(from, Math.min(from + batchSize, contacts.size()));
+            if (mysql) {
+                // ids are drawn for every row; rows that turn out to be updates keep theirs, leaving a gap
+                assignNewIds(batch, generator, session);
+                hibernate.doWork(connection -> {
+                    execute(connection, ContactUpsertSql.mysql(batch.size(), updatedAttributes), batch);
+                    readExistingIds(connection, batch, false);
+                });
+            } else {
+                hibernate.doWork(connection -> readExistingIds(connection, batch, true));
+                assignNewIds(batch, generator, session);
+                hibernate.doWork(connection ->
+                        execute(connection, ContactUpsertSql.h2(batch.size(), updatedAttributes), batch));
+            }
+        }
+    }
+
+    private static void assignNewIds(List<Contact> batch, BeforeExecutionGenerator generator,
+                                     SharedSessionContractImplementor session) {
+        for (Contact contact : batch) {
+            if (contact.getId() == null) {
+                contact.setId((Long) generator.generate(session, contact, null, EventType.INSERT));
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql, List<Contact> batch) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (Contact contact : batch) {
+                for (ContactUpsertSql.Column column : ContactUpsertSql.COLUMNS) {
+                    statement.setObject(index++, column.value().apply(contact));
+                }
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private static void readExistingIds(Connection connection, List<Contact> batch, boolean lowerCaseMatch) throws SQLException {
+        Map<String, Contact> byEmail = new HashMap<>();
+        for (Contact contact : batch) {
+            byEmail.put(contact.getEmail().toLowerCase(Locale.ROOT), contact);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                ContactUpsertSql.selectIds(batch.size(), lowerCaseMatch))) {
+            int index = 1;
+            for (Contact contact : batch) {
+                statement.setString(index++, lowerCaseMatch ? contact.getEmail().toLowerCase(Locale.ROOT) : contact.getEmail());
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    Contact contact = byEmail.get(rs.getString(2).toLowerCase(Locale.ROOT));
+                    if (contact != null) {
+                        contact.setId(rs.getLong(1));
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isMySql() {
+        SessionFactoryImplementor factory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        return factory.getJdbcServices().getDialect() instanceof MySQLDialect;
+    }
+
+    private static Generator idGenerator(SessionFactoryImplementor factory) {
+        return factory.getMappingMetamodel().getEntityDescriptor(Contact.class).getGenerator();
+    }
+}
@@ -0,0 +1,102 @@
+package com.marian_bt.contacts_app.repository;
+
+import com.marian_bt.contacts_app.domain.Contact;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the native multi-row upsert statements for {@code contacts}:
+ * INSERT ... AS new ON DUPLICATE KEY UPDATE on MySQL (the row alias needs
+ * 8.0.19; VALUES() in that clause is deprecated), MERGE on H2. MySQL matches on
+ * the unique email index and its case-insensitive collation. H2 compares
+ * emails case-sensitively, so there existing ids are resolved by lower(email)
+ * first and the MERGE matches on the primary key.
+ */
+final class ContactUpsertSql {
+
+    record Column(String attribute, String name, Function<Contact, Object> value, boolean updatable) {
+
+        Column(String attribute, String name, Function<Contact, Object> value) {
+            this(attribute, name, value, true);
+        }
+    }
+
+    /** Attributes the upsert writes, in parameter order; id and audit columns come last. */
+    static final List<Column> COLUMNS = List.of(
+            new Column("email", "email", Contact::getEmail),
+            new Column("title", "title", Contact::getTitle),
+            new Column("firstName", "first_name", Contact::getFirstName),
+            new Column("lastName", "last_name", Contact::getLastName),
+            new Column("gender", "gender", Contact::getGender),
+            new Column("phone1", "phone1", Contact::getPhone1),
+            new Column("phone2", "phone2", Contact::getPhone2),
+            new Column("institution", "institution", Contact::getInstitution),
+            new Column("faculty", "faculty", Contact::getFaculty),
+            new Column("studyDomain", "study_domain", Contact::getStudyDomain),
+            new Column("persGroup", "pers_group", Contact::getPersGroup),
+            new Column("function", "job_function", Contact::getFunction),
+            new Column("country", "country", Contact::getCountry),
+            new Column("coilExp", "coil_exp", Contact::isCoilExp),
+            new Column("mobilityFin", "mobility_fin", Contact::isMobilityFin),
+            new Column("contactedByIngenium", "contacted_by_ingenium", Contact::isContactedByIngenium),
+            new Column("id", "id", Contact::getId, false),
+            new Column("createdAt", "created_at", Contact::getCreatedAt, false),
+            new Column("createdBy", "created_by", Contact::getCreatedBy, false),
+            new Column("updatedAt", "updated_at", Contact::getUpdatedAt, false),
+            new Column("updatedBy", "updated_by", Contact::getUpdatedBy, false));
+
+    private static final List<String> ALWAYS_UPDATED = List.of("updated_at", "updated_by");
+
+    private ContactUpsertSql() {
+    }
+
+    static String mysql(int rows, Collection<String> updatedAttributes) {
+        String row = COLUMNS.stream().map(c -> "?").collect(Collectors.joining(", ", "(", ")"));
+        return "INSERT INTO contacts (" + columnNames("") + ") VALUES " +
+                String.join(", ", Collections.nCopies(rows, row)) +
+                " AS new ON DUPLICATE KEY UPDATE " +
+                updatedColumns(updatedAttributes).stream()
+                        .map(name -> name + " = new." + name)
+                        .collect(Collectors.joining(", "));
+    }
+
+    static String h2(int rows, Collection<String> updatedAttributes) {
+        String row = COLUMNS.stream().map(c -> "?").collect(Collectors.joining(", ", "(", ")"));
+        return "MERGE INTO contacts t USING (VALUES " +
+                String.join(", ", Collections.nCopies(rows, row)) +
+                ") AS s(" + columnNames("") + ") ON t.id = s.id" +
+                " WHEN MATCHED THEN UPDATE SET " +
+                updatedColumns(updatedAttributes).stream()
+                        .map(name -> "t." + name + " = s." + name)
+                        .collect(Collectors.joining(", ")) +
+                " WHEN NOT MATCHED THEN INSERT (" + columnNames("") + ") VALUES (" + columnNames("s.") + ")";
+    }
+
+    /** Ids of existing rows by email. */
+    static String selectIds(int rows, boolean lowerCaseMatch) {
+        String placeholders = String.join(", ", Collections.nCopies(rows, "?"));
+        return lowerCaseMatch
+                ? "SELECT id, email FROM contacts WHERE LOWER(email) IN (" + placeholders + ")"
+                : "SELECT id, email FROM contacts WHERE email IN (" + placeholders + ")";
+    }
+
+    private static String columnNames(String prefix) {
+        return COLUMNS.stream().map(c -> prefix + c.name()).collect(Collectors.joining(", "));
+    }
+
+    private static List<String> updatedColumns(Collection<String> updatedAttributes) {
+        List<String> names = new ArrayList<>();
+        for (Column column : COLUMNS) {
+            if (column.updatable() && updatedAttributes.contains(column.attribute())) {
+                names.add(column.name());
+            }
+        }
+        names.addAll(ALWAYS_UPDATED);
+        return names;
+    }
+}
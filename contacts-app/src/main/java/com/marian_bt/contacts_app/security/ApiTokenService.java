@@ -0,0 +1,68 @@
+package com.marian_bt.contacts_app.security;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Issues the bearer tokens of the /api/** surface: HMAC-signed JWTs carrying
+ * the username and roles, verified locally on every request (see
+ * {@link SecurityConfig}). A token stays valid until it expires, so role
+ * changes and disabled accounts take effect on the next token at the latest.
+ */
+@Service
+public class ApiTokenService {
+
+    static final String ROLES_CLAIM = "roles";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final JwtEncoder encoder;
+    private final String issuer;
+    private final Duration ttl;
+
+    public ApiTokenService(JwtEncoder encoder,
+                           @Value("${contacts.api.token.issuer:contacts-app}") String issuer,
+                           @Value("${contacts.api.token.ttl:PT1H}") Duration ttl) {
+        this.encoder = encoder;
+        this.issuer = issuer;
+        this.ttl = ttl;
+    }
+
+    public ApiToken issue(Authentication authentication) {
+        Instant now = Instant.now();
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority != null && authority.startsWith(ROLE_PREFIX))
+                .map(authority -> authority.substring(ROLE_PREFIX.length()))
+                .toList();
+
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(issuer)
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim(ROLES_CLAIM, roles)
+                .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+
+        String token = encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        return new ApiToken(token, "Bearer", ttl.toSeconds());
+    }
+
+    /** Token response, named as in OAuth 2 (RFC 6749, section 5.1). */
+    public record ApiToken(@JsonProperty("access_token") String accessToken,
+                           @JsonProperty("token_type") String tokenType,
+                           @JsonProperty("expires_in") long expiresIn) {
+    }
+}
@@ -1,8 +1,12 @@
 package com.marian_bt.contacts_app.security;
 
 
+import com.marian_bt.contacts_app.config.CacheConfig;
 import com.marian_bt.contacts_app.domain.AppUser;
+import com.marian_bt.contacts_app.domain.UserRole;
 import com.marian_bt.contacts_app.repository.AppUserRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,34 +14,61 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
+/**
+ * Loads users for authentication. Found users are cached (see
+ * {@link CacheConfig#USER_DETAILS_CACHE}), so repeated logins do not query
+ * app_users every time; whoever changes a user must {@link #evict} it.
+ * Unknown usernames are not cached.
+ */
 @Service
 public class DatabaseUserDetailsService implements UserDetailsService {
 
     private final AppUserRepository userRepository;
+    private final Cache cache;
 
-    public DatabaseUserDetailsService(AppUserRepository userRepository) {
+    public DatabaseUserDetailsService(AppUserRepository userRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
+        this.cache = cacheManager.getCache(CacheConfig.USER_DETAILS_CACHE);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        AppUser user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        CachedUser cached = cache.get(key(username), CachedUser.class);
+        // another spelling of a cached name goes to the database, which decides whether case matters
+        if (cached == null || !cached.username().equals(username)) {
+            AppUser user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+            cached = new CachedUser(user.getUsername(), user.getPassword(), user.isEnabled(), user.getRole());
+            cache.put(key(user.getUsername()), cached);
+        }
 
         List<GrantedAuthority> authorities =
-                List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
+                List.of(new SimpleGrantedAuthority("ROLE_" + cached.role()));
 
+        // a new instance per call: the authentication erases the password of the one it keeps
         return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                user.isEnabled(),
+                cached.username(),
+                cached.password(),
+                cached.enabled(),
                 true,
                 true,
                 true,
                 authorities
         );
     }
+
+    /** Drops the cached user, so the next login reads the current role, password and state. */
+    public void evict(String username) {
+        cache.evict(key(username));
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private record CachedUser(String username, String password, boolean enabled, UserRole role) {
+    }
 }
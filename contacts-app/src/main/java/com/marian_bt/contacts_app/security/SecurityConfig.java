@@ -1,29 +1,101 @@
 package com.marian_bt.contacts_app.security;
 
 
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+/**
+ * Two ways in: form login with an HTTP session for the web UI, and stateless
+ * bearer tokens for the /api/** surface used by scripts and integrations.
+ * API tokens are JWTs signed with a shared HMAC key and verified locally, so
+ * an API request needs neither a session nor a password check.
+ */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
+    /** POST /api/token: HTTP Basic, checked once per issued token. */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiTokenFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/api/token")
+                .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
+                .httpBasic(Customizer.withDefaults())
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, JwtDecoder apiTokenDecoder) throws Exception {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName(ApiTokenService.ROLES_CLAIM);
+        authorities.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter authenticationConverter = new JwtAuthenticationConverter();
+        authenticationConverter.setJwtGrantedAuthoritiesConverter(authorities);
+
+        http
+                .securityMatcher("/api/**")
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(HttpMethod.GET, "/api/v1/contacts", "/api/v1/contacts/**")
+                        .hasAnyRole("ADMIN", "USER")
+                        .requestMatchers("/api/v1/contacts", "/api/v1/contacts/**").hasRole("ADMIN")
+                        .anyRequest().authenticated()
+                )
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt
+                                .decoder(apiTokenDecoder)
+                                .jwtAuthenticationConverter(authenticationConverter)))
+                // bearer tokens are not sent automatically by browsers, so there is nothing to forge
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.
                 authorizeHttpRequests(auth -> auth
                         .requestMatchers("/css/**","/login").permitAll()
 
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                         .requestMatchers(HttpMethod.GET,"/contacts/new",
                                 "/contacts/*/edit").hasRole("ADMIN")
 
@@ -51,9 +123,49 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * HMAC-SHA256 key of the API tokens, from contacts.api.token.secret. Without
+     * a secret a random key is used, so tokens stop working on restart and are
+     * not accepted by other instances.
+     */
+    @Bean
+    public SecretKey apiTokenKey(@Value("${contacts.api.token.secret:}") String secret) {
+        byte[] key;
+        if (secret.isBlank()) {
+            log.warn("contacts.api.token.secret is not set; API tokens are signed with a random key " +
+                    "and become invalid when the application restarts");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+            if (key.length < 32) {
+                throw new IllegalStateException("contacts.api.token.secret must be at least 32 bytes long");
+            }
+        }
+        return new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    @Bean
+    public JwtEncoder apiTokenEncoder(SecretKey apiTokenKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(apiTokenKey));
+    }
+
+    /** Checks signature, expiry and issuer; nothing is looked up. */
+    @Bean
+    public JwtDecoder apiTokenDecoder(SecretKey apiTokenKey,
+                                      @Value("${contacts.api.token.issuer:contacts-app}") String issuer) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(apiTokenKey)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        return decoder;
+    }
+
+    /** BCrypt with a configurable cost factor, timed (see {@link TimedPasswordEncoder}). */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${contacts.security.bcrypt-strength:10}") int strength,
+                                           MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry);
     }
 
 
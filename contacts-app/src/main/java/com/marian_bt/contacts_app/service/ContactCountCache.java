@@ -0,0 +1,146 @@
+package com.marian_bt.contacts_app.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches search result counts per normalized criteria so the paginator does not
+ * run a COUNT query on every request.
+ * <p>
+ * Every committed contact write bumps a generation number instead of clearing
+ * the cache. Entries from the current generation are exact; older entries are
+ * still good enough as an estimate while a fresh count runs in the background.
+ */
+@Component
+public class ContactCountCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactCountCache.class);
+
+    private static final class Entry {
+        final long count;
+        final long generation;
+
+        Entry(long count, long generation) {
+            this.count = count;
+            this.generation = generation;
+        }
+    }
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, Entry> entries;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+
+    public ContactCountCache(@Value("${contacts.search.count-cache.max-entries:1000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.executor = new ThreadPoolExecutor(
+                1, 2, 30L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "contact-count");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @return the cached count if no contact was written since it was taken
+     */
+    public Long exact(String key) {
+        Entry entry = get(key);
+        return entry != null && entry.generation == generation.get() ? entry.count : null;
+    }
+
+    /**
+     * @return the cached count even if it predates the latest write
+     */
+    public Long estimate(String key) {
+        Entry entry = get(key);
+        return entry != null ? entry.count : null;
+    }
+
+    /**
+     * Stores a count taken at {@code takenAt}; counts that started before a
+     * write are kept, but only as an estimate.
+     */
+    public void put(String key, long count, long takenAt) {
+        synchronized (entries) {
+            Entry existing = entries.get(key);
+            if (existing == null || existing.generation <= takenAt) {
+                entries.put(key, new Entry(count, takenAt));
+            }
+        }
+    }
+
+    public long countNow(String key, LongSupplier counter) {
+        long takenAt = generation.get();
+        long count = counter.getAsLong();
+        put(key, count, takenAt);
+        return count;
+    }
+
+    /**
+     * Computes the count on a background thread unless one is already running
+     * for the same key. When the pool is busy the request is simply dropped;
+     * the next page view will ask again.
+     */
+    public void refreshAsync(String key, LongSupplier counter) {
+        if (!inFlight.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    countNow(key, counter);
+                } catch (RuntimeException e) {
+                    log.warn("Background count failed for {}", key, e);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * Marks every cached count as stale once the current transaction commits.
+     */
+    public void invalidateAfterCommit() {
+        TransactionCallbacks.afterCommit(generation::incrementAndGet);
+    }
+
+    private Entry get(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,231 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CSV helpers used by the contact import. The header is compiled once into a
+ * {@link ColumnPlan}; records come from a {@link RecordReader} and only the
+ * mapped columns are turned into Strings. Kept free of Spring and JPA so
+ * the parsing hot path can be benchmarked on its own (see src/jmh).
+ */
+final class ContactCsv {
+
+    /** Contact properties the import can fill, with the header names accepted for each. */
+    enum Field {
+        EMAIL("email", "email", "e-mail"),
+        TITLE("title", "title"),
+        FIRST_NAME("firstName", "firstname", "first_name", "first name"),
+        LAST_NAME("lastName", "lastname", "last_name", "last name"),
+        GENDER("gender", "gender"),
+        PHONE1("phone1", "phone1", "phone_1", "phone"),
+        PHONE2("phone2", "phone2", "phone_2", "mobile", "mobile_phone"),
+        INSTITUTION("institution", "institution"),
+        FACULTY("faculty", "faculty"),
+        STUDY_DOMAIN("studyDomain", "studydomain", "study_domain", "study domain"),
+        PERS_GROUP("persGroup", "persgroup", "pers_group", "personal_group", "personal group"),
+        FUNCTION("function", "function", "jobfunction", "job_function", "job function"),
+        COUNTRY("country", "country"),
+        COIL_EXP("coilExp", "coilexp", "coil_exp", "coil experience"),
+        MOBILITY_FIN("mobilityFin", "mobilityfin", "mobility_fin", "mobility financing"),
+        CONTACTED_BY_INGENIUM("contactedByIngenium", "contactedbyingenium", "contacted_by_ingenium", "contacted by ingenium");
+
+        private static final Field[] VALUES = values();
+
+        /** Contact attribute the field is written to. */
+        final String attribute;
+        private final String[] headers;
+
+        Field(String attribute, String... headers) {
+            this.attribute = attribute;
+            this.headers = headers;
+        }
+
+        /** Boolean flags keep their current value when the cell is empty or unreadable. */
+        boolean isFlag() {
+            return this == COIL_EXP || this == MOBILITY_FIN || this == CONTACTED_BY_INGENIUM;
+        }
+    }
+
+    private ContactCsv() {
+    }
+
+    /** Maps each trimmed, lower-cased header name of the current record to its column position. */
+    static Map<String, Integer> headerIndex(RecordReader header) {
+        Map<String, Integer> headerIndex = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String normalized = header.value(i).toLowerCase(Locale.ROOT);
+            if (!normalized.isEmpty()) {
+                headerIndex.put(normalized, i);
+            }
+        }
+        return headerIndex;
+    }
+
+    static boolean hasAnyHeader(Map<String, Integer> headerIndex, String... names) {
+        for (String name : names) {
+            if (headerIndex.containsKey(name.toLowerCase(Locale.ROOT))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Column position of every {@link Field}, resolved once from the header
+     * (first accepted name that is present wins).
+     */
+    static final class ColumnPlan {
+
+        private final int[] columns = new int[Field.VALUES.length];
+
+        private ColumnPlan(Map<String, Integer> headerIndex) {
+            Arrays.fill(columns, -1);
+            for (Field field : Field.VALUES) {
+                for (String header : field.headers) {
+                    Integer idx = headerIndex.get(header);
+                    if (idx != null) {
+                        columns[field.ordinal()] = idx;
+                        break;
+                    }
+                }
+            }
+        }
+
+        static ColumnPlan compile(Map<String, Integer> headerIndex) {
+            return new ColumnPlan(headerIndex);
+        }
+
+        boolean has(Field field) {
+            return columns[field.ordinal()] >= 0;
+        }
+
+        /** The mapped values of the current row, indexed by {@link Field#ordinal()}. */
+        String[] read(RecordReader row) {
+            String[] values = new String[columns.length];
+            for (int f = 0; f < columns.length; f++) {
+                int col = columns[f];
+                if (col >= 0 && col < row.size()) {
+                    values[f] = row.value(col);
+                }
+            }
+            return values;
+        }
+
+        /** The email of the current row, without reading the other columns. */
+        String readEmail(RecordReader row) {
+            int col = columns[Field.EMAIL.ordinal()];
+            return col >= 0 && col < row.size() ? row.value(col) : null;
+        }
+
+        /** Copies the mapped values onto the contact (email is handled by the caller). */
+        void apply(Contact contact, String[] values) {
+            contact.setTitle(values[Field.TITLE.ordinal()]);
+            contact.setFirstName(values[Field.FIRST_NAME.ordinal()]);
+            contact.setLastName(values[Field.LAST_NAME.ordinal()]);
+            contact.setGender(values[Field.GENDER.ordinal()]);
+            contact.setPhone1(values[Field.PHONE1.ordinal()]);
+            contact.setPhone2(values[Field.PHONE2.ordinal()]);
+            contact.setInstitution(values[Field.INSTITUTION.ordinal()]);
+            contact.setFaculty(values[Field.FACULTY.ordinal()]);
+            contact.setStudyDomain(values[Field.STUDY_DOMAIN.ordinal()]);
+            contact.setPersGroup(values[Field.PERS_GROUP.ordinal()]);
+            contact.setFunction(values[Field.FUNCTION.ordinal()]);
+            contact.setCountry(values[Field.COUNTRY.ordinal()]);
+
+            Boolean b = parseBooleanNullable(values[Field.COIL_EXP.ordinal()]);
+            if (b != null) contact.setCoilExp(b);
+
+            b = parseBooleanNullable(values[Field.MOBILITY_FIN.ordinal()]);
+            if (b != null) contact.setMobilityFin(b);
+
+            b = parseBooleanNullable(values[Field.CONTACTED_BY_INGENIUM.ordinal()]);
+            if (b != null) contact.setContactedByIngenium(b);
+        }
+
+        /**
+         * True when importing the row (email included) would leave the contact as
+         * it is. Empty and missing text values are treated as equal.
+         */
+        boolean isUnchanged(Contact contact, String[] values) {
+            return same(contact.getEmail(), values[Field.EMAIL.ordinal()])
+                    && same(contact.getTitle(), values[Field.TITLE.ordinal()])
+                    && same(contact.getFirstName(), values[Field.FIRST_NAME.ordinal()])
+                    && same(contact.getLastName(), values[Field.LAST_NAME.ordinal()])
+                    && same(contact.getGender(), gender(values[Field.GENDER.ordinal()]))
+                    && same(contact.getPhone1(), values[Field.PHONE1.ordinal()])
+                    && same(contact.getPhone2(), values[Field.PHONE2.ordinal()])
+                    && same(contact.getInstitution(), values[Field.INSTITUTION.ordinal()])
+                    && same(contact.getFaculty(), values[Field.FACULTY.ordinal()])
+                    && same(contact.getStudyDomain(), values[Field.STUDY_DOMAIN.ordinal()])
+                    && same(contact.getPersGroup(), values[Field.PERS_GROUP.ordinal()])
+                    && same(contact.getFunction(), values[Field.FUNCTION.ordinal()])
+                    && same(contact.getCountry(), values[Field.COUNTRY.ordinal()])
+                    && sameFlag(contact.isCoilExp(), values[Field.COIL_EXP.ordinal()])
+                    && sameFlag(contact.isMobilityFin(), values[Field.MOBILITY_FIN.ordinal()])
+                    && sameFlag(contact.isContactedByIngenium(), values[Field.CONTACTED_BY_INGENIUM.ordinal()]);
+        }
+
+        private static boolean same(String current, String value) {
+            if (current == null || current.isEmpty()) {
+                return value == null || value.isEmpty();
+            }
+            return current.equals(value);
+        }
+
+        /** The gender as {@link Contact#setGender} stores it. */
+        private static String gender(String value) {
+            return value == null ? null : value.trim().toLowerCase();
+        }
+
+        private static boolean sameFlag(boolean current, String value) {
+            Boolean b = parseBooleanNullable(value);
+            return b == null || b == current;
+        }
+    }
+
+    static String email(String[] values) {
+        return values[Field.EMAIL.ordinal()];
+    }
+
+    /**
+     * Folds two rows for the same email the way applying both in order would:
+     * the later row wins, except for flags it leaves empty.
+     */
+    static String[] merge(String[] earlier, String[] later) {
+        String[] merged = later.clone();
+        for (Field field : Field.VALUES) {
+            int f = field.ordinal();
+            if (field.isFlag() && parseBooleanNullable(later[f]) == null) {
+                merged[f] = earlier[f];
+            }
+        }
+        return merged;
+    }
+
+    /** Attributes {@link ColumnPlan#apply} assigns for this row. */
+    static Set<String> appliedAttributes(String[] values) {
+        Set<String> attributes = new HashSet<>();
+        for (Field field : Field.VALUES) {
+            if (!field.isFlag() || parseBooleanNullable(values[field.ordinal()]) != null) {
+                attributes.add(field.attribute);
+            }
+        }
+        return attributes;
+    }
+
+    static Boolean parseBooleanNullable(String value) {
+        if (value == null) return null;
+        String v = value.trim();
+        if (v.isEmpty()) return null;
+        if (v.equalsIgnoreCase("true") || v.equalsIgnoreCase("yes") || v.equalsIgnoreCase("y") || v.equals("1")) return Boolean.TRUE;
+        if (v.equalsIgnoreCase("false") || v.equalsIgnoreCase("no") || v.equalsIgnoreCase("n") || v.equals("0")) return Boolean.FALSE;
+        return null;
+    }
+}
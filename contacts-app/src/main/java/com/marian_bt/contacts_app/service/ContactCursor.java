@@ -0,0 +1,68 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the default contact ordering (last name, first name, id) used for
+ * keyset pagination. It is handed to clients as an opaque URL-safe token.
+ */
+public final class ContactCursor {
+
+    private static final char SEPARATOR = '\u001F';
+
+    private final String lastName;
+    private final String firstName;
+    private final long id;
+
+    public ContactCursor(String lastName, String firstName, long id) {
+        this.lastName = lastName;
+        this.firstName = firstName;
+        this.id = id;
+    }
+
+    public static ContactCursor of(Contact contact) {
+        return new ContactCursor(contact.getLastName(), contact.getFirstName(), contact.getId());
+    }
+
+    public static ContactCursor of(ContactSummary contact) {
+        return new ContactCursor(contact.getLastName(), contact.getFirstName(), contact.getId());
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @return the cursor, or {@code null} for a blank or malformed token, which
+     * callers treat as "start from the beginning"
+     */
+    public static ContactCursor parse(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = decoded.indexOf(SEPARATOR);
+            int second = decoded.indexOf(SEPARATOR, first + 1);
+            if (first < 0 || second < 0) {
+                return null;
+            }
+            return new ContactCursor(
+                    decoded.substring(0, first),
+                    decoded.substring(first + 1, second),
+                    Long.parseLong(decoded.substring(second + 1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public String encode() {
+        String raw = lastName + SEPARATOR + firstName + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getLastName() { return lastName; }
+    public String getFirstName() { return firstName; }
+    public long getId() { return id; }
+}
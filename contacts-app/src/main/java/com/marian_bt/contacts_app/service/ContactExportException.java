@@ -0,0 +1,8 @@
+package com.marian_bt.contacts_app.service;
+
+/** An export that cannot be produced in the requested format, refused before anything is written. */
+public class ContactExportException extends RuntimeException {
+    public ContactExportException(String message) {
+        super(message);
+    }
+}
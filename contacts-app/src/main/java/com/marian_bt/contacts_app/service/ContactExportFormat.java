@@ -0,0 +1,86 @@
+package com.marian_bt.contacts_app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * File formats of the contact export, chosen by the {@code format} request
+ * parameter or else by the Accept header. All of them are written row by row
+ * while the contacts are streamed from the database.
+ */
+public enum ContactExportFormat {
+
+    CSV("csv", "text/csv;charset=UTF-8", ".csv"),
+    /** The CSV export, gzip compressed (roughly a tenth of the size). */
+    CSV_GZIP("csv.gz", "application/gzip", ".csv.gz"),
+    /** One JSON object per line, for loading into other systems. */
+    NDJSON("ndjson", "application/x-ndjson", ".ndjson"),
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", ".xlsx");
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final String parameter;
+    private final String contentType;
+    private final String extension;
+
+    ContactExportFormat(String parameter, String contentType, String extension) {
+        this.parameter = parameter;
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /** Format for the {@code format} parameter, e.g. "csv.gz" (or "gzip"). */
+    public static Optional<ContactExportFormat> forName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals("gzip") || normalized.equals("gz")) {
+            return Optional.of(CSV_GZIP);
+        }
+        for (ContactExportFormat format : values()) {
+            if (format.parameter.equals(normalized)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** First non-CSV format the Accept header asks for; CSV for browsers and anything else. */
+    public static ContactExportFormat forAccept(String accept) {
+        if (accept != null) {
+            String normalized = accept.toLowerCase(Locale.ROOT);
+            for (ContactExportFormat format : values()) {
+                if (format != CSV && normalized.contains(format.mediaType())) {
+                    return format;
+                }
+            }
+        }
+        return CSV;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    private String mediaType() {
+        int parameters = contentType.indexOf(';');
+        return parameters < 0 ? contentType : contentType.substring(0, parameters);
+    }
+
+    ContactExportWriter open(OutputStream out) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvExportWriter(out);
+            case CSV_GZIP -> new CsvExportWriter(new GZIPOutputStream(out, GZIP_BUFFER_SIZE));
+            case NDJSON -> new NdjsonExportWriter(out);
+            case XLSX -> new XlsxExportWriter(out);
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Writes exported contacts in one {@link ContactExportFormat}. Subclasses only
+ * encode single values; the column order is fixed here, so every format has
+ * the same columns. Output goes through one reusable buffer, and nothing is
+ * built per row beyond what the encoding needs.
+ */
+abstract class ContactExportWriter implements Closeable {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    enum Column {
+        ID("id"), TITLE("title"), FIRST_NAME("firstName"), LAST_NAME("lastName"), GENDER("gender"),
+        EMAIL("email"), PHONE1("phone1"), PHONE2("phone2"), INSTITUTION("institution"), FACULTY("faculty"),
+        STUDY_DOMAIN("studyDomain"), PERS_GROUP("persGroup"), FUNCTION("function"), COUNTRY("country"),
+        CONTACTED_BY_INGENIUM("contactedByIngenium"), COIL_EXP("coilExp"), MOBILITY_FIN("mobilityFin"),
+        CREATED_AT("createdAt"), UPDATED_AT("updatedAt");
+
+        static final Column[] VALUES = values();
+
+        final String header;
+
+        Column(String header) {
+            this.header = header;
+        }
+    }
+
+    /** Starts a data row; the values follow in {@link Column} order. */
+    abstract void startRow() throws IOException;
+
+    abstract void writeNumber(Column column, Long value) throws IOException;
+
+    abstract void writeText(Column column, String value) throws IOException;
+
+    abstract void writeFlag(Column column, boolean value) throws IOException;
+
+    abstract void writeTimestamp(Column column, LocalDateTime value) throws IOException;
+
+    abstract void endRow() throws IOException;
+
+    /** Writes the column names, for formats that have a header row. */
+    abstract void writeHeader() throws IOException;
+
+    final void writeRow(Contact c) throws IOException {
+        startRow();
+        for (Column column : Column.VALUES) {
+            switch (column) {
+                case ID -> writeNumber(column, c.getId());
+                case TITLE -> writeText(column, c.getTitle());
+                case FIRST_NAME -> writeText(column, c.getFirstName());
+                case LAST_NAME -> writeText(column, c.getLastName());
+                case GENDER -> writeText(column, c.getGender());
+                case EMAIL -> writeText(column, c.getEmail());
+                case PHONE1 -> writeText(column, c.getPhone1());
+                case PHONE2 -> writeText(column, c.getPhone2());
+                case INSTITUTION -> writeText(column, c.getInstitution());
+                case FACULTY -> writeText(column, c.getFaculty());
+                case STUDY_DOMAIN -> writeText(column, c.getStudyDomain());
+                case PERS_GROUP -> writeText(column, c.getPersGroup());
+                case FUNCTION -> writeText(column, c.getFunction());
+                case COUNTRY -> writeText(column, c.getCountry());
+                case CONTACTED_BY_INGENIUM -> writeFlag(column, c.isContactedByIngenium());
+                case COIL_EXP -> writeFlag(column, c.isCoilExp());
+                case MOBILITY_FIN -> writeFlag(column, c.isMobilityFin());
+                case CREATED_AT -> writeTimestamp(column, c.getCreatedAt());
+                case UPDATED_AT -> writeTimestamp(column, c.getUpdatedAt());
+            }
+        }
+        endRow();
+    }
+
+    /**
+     * Writes the header and every contact {@code contacts} hands over, then
+     * finishes the file. When anything fails on the way the file is left
+     * unfinished: no closing tags, zip directory or gzip trailer, and the
+     * output is not closed, so a cut-off export cannot pass for a complete one.
+     */
+    static void export(ContactExportWriter writer, Consumer<Consumer<Contact>> contacts) throws IOException {
+        try {
+            writer.writeHeader();
+            contacts.accept(contact -> {
+                try {
+                    writer.writeRow(contact);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.close();
+    }
+
+    static Writer utf8(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,109 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Contact attributes that API clients can ask for by name (sparse fieldsets,
+ * e.g. {@code fields=id,email,lastName}). Only the requested columns are
+ * selected from the database.
+ */
+public enum ContactField {
+
+    ID("id"), TITLE("title"), FIRST_NAME("firstName"), LAST_NAME("lastName"), GENDER("gender"),
+    EMAIL("email"), PHONE1("phone1"), PHONE2("phone2"), INSTITUTION("institution"), FACULTY("faculty"),
+    STUDY_DOMAIN("studyDomain"), PERS_GROUP("persGroup"), FUNCTION("function"), COUNTRY("country"),
+    POST_ADDRESS("postAddress"), INTEREST("interest"), FUND_USE("fundUse"), COMMENTS("comments"),
+    COIL_EXP("coilExp"), MOBILITY_FIN("mobilityFin"), CONTACTED_BY_INGENIUM("contactedByIngenium"),
+    CREATED_AT("createdAt"), UPDATED_AT("updatedAt"), CREATED_BY("createdBy"), UPDATED_BY("updatedBy");
+
+    /** Fields of list and search results when the client does not choose: no long text columns. */
+    public static final Set<ContactField> SUMMARY = EnumSet.of(ID, TITLE, FIRST_NAME, LAST_NAME, EMAIL,
+            INSTITUTION, COUNTRY, COIL_EXP, MOBILITY_FIN, CONTACTED_BY_INGENIUM);
+
+    private final String attribute;
+
+    ContactField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /** Entity attribute, also the JSON property name. */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Parses a comma-separated list of attribute names, in the order given;
+     * {@code defaults} when the list is blank.
+     *
+     * @throws UnknownContactFieldException for unknown names
+     */
+    public static List<ContactField> parse(String fields, Set<ContactField> defaults) {
+        if (fields == null || fields.isBlank()) {
+            return List.copyOf(defaults);
+        }
+        Set<ContactField> parsed = EnumSet.noneOf(ContactField.class);
+        List<ContactField> ordered = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            ContactField field = forAttribute(name.trim());
+            if (parsed.add(field)) {
+                ordered.add(field);
+            }
+        }
+        return ordered;
+    }
+
+    private static ContactField forAttribute(String name) {
+        for (ContactField field : values()) {
+            if (field.attribute.equals(name)) {
+                return field;
+            }
+        }
+        throw new UnknownContactFieldException(name);
+    }
+
+    public Object read(Contact c) {
+        return switch (this) {
+            case ID -> c.getId();
+            case TITLE -> c.getTitle();
+            case FIRST_NAME -> c.getFirstName();
+            case LAST_NAME -> c.getLastName();
+            case GENDER -> c.getGender();
+            case EMAIL -> c.getEmail();
+            case PHONE1 -> c.getPhone1();
+            case PHONE2 -> c.getPhone2();
+            case INSTITUTION -> c.getInstitution();
+            case FACULTY -> c.getFaculty();
+            case STUDY_DOMAIN -> c.getStudyDomain();
+            case PERS_GROUP -> c.getPersGroup();
+            case FUNCTION -> c.getFunction();
+            case COUNTRY -> c.getCountry();
+            case POST_ADDRESS -> c.getPostAddress();
+            case INTEREST -> c.getInterest();
+            case FUND_USE -> c.getFundUse();
+            case COMMENTS -> c.getComments();
+            case COIL_EXP -> c.isCoilExp();
+            case MOBILITY_FIN -> c.isMobilityFin();
+            case CONTACTED_BY_INGENIUM -> c.isContactedByIngenium();
+            case CREATED_AT -> c.getCreatedAt();
+            case UPDATED_AT -> c.getUpdatedAt();
+            case CREATED_BY -> c.getCreatedBy();
+            case UPDATED_BY -> c.getUpdatedBy();
+        };
+    }
+
+    /** The fields of {@code contact} as a JSON-ready map, in the order of {@code fields}. */
+    public static Map<String, Object> project(Contact contact, List<ContactField> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (ContactField field : fields) {
+            values.put(field.attribute, field.read(contact));
+        }
+        return values;
+    }
+}
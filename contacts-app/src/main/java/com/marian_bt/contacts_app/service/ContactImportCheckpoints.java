@@ -0,0 +1,113 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.ContactImportCheckpoint;
+import com.marian_bt.contacts_app.repository.ContactImportCheckpointRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Persists {@link ImportCheckpoint}s of background imports in the
+ * contact_import_checkpoints table, so an import that failed or was cut off by
+ * a restart can continue after its last committed chunk.
+ */
+@Component
+class ContactImportCheckpoints {
+
+    private final ContactImportCheckpointRepository repository;
+    private final TransactionTemplate transaction;
+
+    ContactImportCheckpoints(ContactImportCheckpointRepository repository,
+                             PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * The checkpoint of the job; created on the import's first run, continued
+     * on later ones. A resume fails if the file no longer has the same hash.
+     */
+    ImportCheckpoint forJob(String jobId, String fileName, String fileHash, String submittedBy) {
+        return new Persistent(jobId, fileName, fileHash, submittedBy);
+    }
+
+    /** Jobs with a checkpoint, i.e. imports that were started but never completed (one entry per job). */
+    List<ContactImportCheckpoint> findUnfinished() {
+        return transaction.execute(status -> repository.findAll().stream()
+                .filter(checkpoint -> checkpoint.getPartitionNo() == 0)
+                .toList());
+    }
+
+    long committedRows(String jobId) {
+        return transaction.execute(status -> repository.findByJobIdOrderByPartitionNo(jobId).stream()
+                .mapToLong(ContactImportCheckpoint::getCommittedRows)
+                .sum());
+    }
+
+    /** Keeps the reason a run failed, so it survives a restart; null marks the job as running again. */
+    void recordFailure(String jobId, String failure) {
+        String stored = failure != null && failure.length() > ContactImportCheckpoint.MAX_FAILURE_LENGTH
+                ? failure.substring(0, ContactImportCheckpoint.MAX_FAILURE_LENGTH) : failure;
+        transaction.executeWithoutResult(status -> repository.recordFailure(jobId, stored, LocalDateTime.now()));
+    }
+
+    void delete(String jobId) {
+        transaction.executeWithoutResult(status -> repository.deleteByJobId(jobId));
+    }
+
+    private final class Persistent implements ImportCheckpoint {
+
+        private final String jobId;
+        private final String fileName;
+        private final String fileHash;
+        private final String submittedBy;
+        private long[] committed;
+
+        Persistent(String jobId, String fileName, String fileHash, String submittedBy) {
+            this.jobId = jobId;
+            this.fileName = fileName;
+            this.fileHash = fileHash;
+            this.submittedBy = submittedBy;
+        }
+
+        @Override
+        public int begin(int partitions) {
+            List<ContactImportCheckpoint> stored = transaction.execute(status -> {
+                List<ContactImportCheckpoint> existing = repository.findByJobIdOrderByPartitionNo(jobId);
+                if (existing.isEmpty()) {
+                    for (int p = 0; p < partitions; p++) {
+                        repository.save(new ContactImportCheckpoint(jobId, p, partitions, fileName, fileHash, submittedBy));
+                    }
+                } else {
+                    repository.recordFailure(jobId, null, LocalDateTime.now());
+                }
+                return existing;
+            });
+
+            if (stored.isEmpty()) {
+                committed = new long[partitions];
+                return partitions;
+            }
+            if (!fileHash.equals(stored.get(0).getFileHash())) {
+                throw new ContactImportException("The file changed since the import was started; it cannot be resumed.");
+            }
+            committed = stored.stream().mapToLong(ContactImportCheckpoint::getCommittedRows).toArray();
+            return stored.get(0).getPartitions();
+        }
+
+        @Override
+        public long committedRows(int partition) {
+            return committed[partition];
+        }
+
+        @Override
+        public void advance(int partition, int rows) {
+            repository.advance(jobId, partition, rows, LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.marian_bt.contacts_app.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * File formats accepted by the import, recognised by file name. Compressed
+ * CSV is decompressed while it is read and XLSX is streamed, so no format is
+ * ever expanded in memory or on disk.
+ */
+public enum ContactImportFormat {
+
+    CSV(".csv"),
+    CSV_GZIP(".csv.gz", ".gz"),
+    /** A zip archive holding the CSV; the first .csv entry is imported. */
+    CSV_ZIP(".zip"),
+    /** The first worksheet of an Excel workbook. */
+    XLSX(".xlsx");
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final String[] extensions;
+
+    ContactImportFormat(String... extensions) {
+        this.extensions = extensions;
+    }
+
+    public static Optional<ContactImportFormat> forFileName(String fileName) {
+        if (fileName == null) {
+            return Optional.empty();
+        }
+        String name = fileName.toLowerCase(Locale.ROOT);
+        for (ContactImportFormat format : values()) {
+            for (String extension : format.extensions) {
+                if (name.endsWith(extension)) {
+                    return Optional.of(format);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Opens the raw upload; the delimiter only applies to the CSV formats. */
+    RecordReader open(InputStream in, char delimiter) throws IOException {
+        return switch (this) {
+            case CSV -> csv(in, delimiter);
+            case CSV_GZIP -> csv(new GZIPInputStream(in, GZIP_BUFFER_SIZE), delimiter);
+            case CSV_ZIP -> csv(firstCsvEntry(new ZipInputStream(in)), delimiter);
+            case XLSX -> new XlsxReader(in);
+        };
+    }
+
+    private static RecordReader csv(InputStream in, char delimiter) {
+        return new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8), delimiter);
+    }
+
+    private static InputStream firstCsvEntry(ZipInputStream zip) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String name = entry.getName();
+            if (!entry.isDirectory() && !name.startsWith("__MACOSX/")
+                    && name.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                return zip;
+            }
+        }
+        zip.close();
+        throw new ContactImportException("The ZIP file does not contain a .csv file.");
+    }
+}
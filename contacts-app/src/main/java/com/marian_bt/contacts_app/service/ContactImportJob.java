@@ -0,0 +1,171 @@
+package com.marian_bt.contacts_app.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Status of a background import. Counters are updated by the import worker
+ * thread and read by status requests, so they are kept in atomics/volatiles.
+ */
+public class ContactImportJob implements ContactImportProgress {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final ContactImportFormat format;
+    private final long totalBytes;
+    private final boolean dryRun;
+    private final Instant submittedAt = Instant.now();
+
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsSkipped = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String message;
+    private volatile ContactImportPreview preview;
+    private volatile boolean resumable;
+
+    public ContactImportJob(String id, String fileName, long totalBytes) {
+        this(id, fileName, totalBytes, false);
+    }
+
+    public ContactImportJob(String id, String fileName, long totalBytes, boolean dryRun) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = ContactImportFormat.forFileName(fileName).orElse(ContactImportFormat.CSV);
+        this.totalBytes = totalBytes;
+        this.dryRun = dryRun;
+    }
+
+    @Override
+    public void rowsImported(int rows) {
+        rowsProcessed.addAndGet(rows);
+    }
+
+    @Override
+    public void rowRejected() {
+        errorCount.incrementAndGet();
+    }
+
+    @Override
+    public void rowsSkipped(int rows) {
+        rowsSkipped.addAndGet(rows);
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    void markRunning() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void markCompleted(int imported) {
+        finishedAt = Instant.now();
+        message = imported > 0
+                ? imported + " contacts imported successfully."
+                // File was syntactically OK, but no usable rows (e.g. no email values)
+                : "The file was processed, but no contacts were imported. " +
+                  "Make sure there is an 'email' column and that rows have email values.";
+        status = Status.COMPLETED;
+    }
+
+    void markPreviewed(ContactImportPreview preview) {
+        this.preview = preview;
+        finishedAt = Instant.now();
+        message = "Dry run finished, nothing was written: " +
+                preview.getInserts() + " new, " + preview.getUpdates() + " updated, " +
+                preview.getUnchanged() + " unchanged, " + preview.getRejected() + " rejected.";
+        status = Status.COMPLETED;
+    }
+
+    void markFailed(String reason) {
+        finishedAt = Instant.now();
+        message = "Import failed: " + reason;
+        status = Status.FAILED;
+    }
+
+    void setResumable(boolean resumable) {
+        this.resumable = resumable;
+    }
+
+    public String getId() { return id; }
+    public String getFileName() { return fileName; }
+    public ContactImportFormat getFormat() { return format; }
+    public long getTotalBytes() { return totalBytes; }
+    public boolean isDryRun() { return dryRun; }
+    public Instant getSubmittedAt() { return submittedAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public Status getStatus() { return status; }
+    public String getMessage() { return message; }
+    /** Result of a dry run, {@code null} for real imports and while running. */
+    public ContactImportPreview getPreview() { return preview; }
+    public long getRowsProcessed() { return rowsProcessed.get(); }
+    public long getErrorCount() { return errorCount.get(); }
+    public long getBytesRead() { return bytesRead.get(); }
+    /** Rows committed by an earlier run of this import and skipped by this one. */
+    public long getRowsSkipped() { return rowsSkipped.get(); }
+    /** A failed import whose committed chunks are checkpointed; it can continue from there. */
+    public boolean isResumable() { return resumable; }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public long getElapsedSeconds() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        return Duration.between(start, end).toSeconds();
+    }
+
+    public long getRowsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(start, end).toMillis());
+        return getRowsProcessed() * 1000 / millis;
+    }
+
+    public int getPercentComplete() {
+        if (status == Status.COMPLETED) {
+            return 100;
+        }
+        if (totalBytes <= 0) {
+            return 0;
+        }
+        return (int) Math.min(99, getBytesRead() * 100 / totalBytes);
+    }
+
+    /**
+     * Remaining time extrapolated from the share of the file read so far,
+     * or {@code null} while there is not enough data to estimate.
+     */
+    public Long getEtaSeconds() {
+        Instant start = startedAt;
+        long read = getBytesRead();
+        if (isFinished()) {
+            return 0L;
+        }
+        if (start == null || read <= 0 || totalBytes <= 0) {
+            return null;
+        }
+        long elapsedMillis = Duration.between(start, Instant.now()).toMillis();
+        long remainingBytes = Math.max(0, totalBytes - read);
+        return elapsedMillis * remainingBytes / read / 1000;
+    }
+}
@@ -0,0 +1,431 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.ContactImportCheckpoint;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.dao.DataAccessException;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipException;
+
+/**
+ * Runs imports in the background. Uploads are spooled to a local directory
+ * so the request thread can return immediately, and a bounded worker pool
+ * processes them while {@link ContactImportJob} exposes the progress.
+ * <p>
+ * Imports commit chunk by chunk and checkpoint each chunk (see
+ * {@link ContactImportCheckpoints}). When one fails on a database or I/O
+ * error after committing a chunk, or the server stops while it runs, the
+ * spooled file and checkpoint are kept until the job expires, and
+ * {@link #resume} continues after the last committed chunk. Files that cannot
+ * be parsed and invalid rows fail for good and are cleaned up.
+ */
+@Service
+public class ContactImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactImportJobService.class);
+
+    private final ContactService contactService;
+    private final ContactImportCheckpoints checkpoints;
+    private final AuditorAware<String> auditorAware;
+    private final Path spoolDir;
+    private final Duration jobRetention;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ContactImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ContactImportJobService(ContactService contactService,
+                                   ContactImportCheckpoints checkpoints,
+                                   AuditorAware<String> auditorAware,
+                                   @Value("${contacts.import.spool-dir}") Path spoolDir,
+                                   @Value("${contacts.import.workers:2}") int workers,
+                                   @Value("${contacts.import.queue-capacity:10}") int queueCapacity,
+                                   @Value("${contacts.import.job-retention:PT24H}") Duration jobRetention) throws IOException {
+        this.contactService = contactService;
+        this.checkpoints = checkpoints;
+        this.auditorAware = auditorAware;
+        this.spoolDir = Files.createDirectories(spoolDir);
+        this.jobRetention = jobRetention;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "contact-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public ContactImportJob submit(MultipartFile file) throws IOException {
+        return submit(file, false);
+    }
+
+    /**
+     * @param dryRun only validate the file and report what it would change
+     *               (see {@link ContactService#previewImport})
+     */
+    public ContactImportJob submit(MultipartFile file, boolean dryRun) throws IOException {
+        purgeExpiredJobs();
+        if (ContactImportFormat.forFileName(file.getOriginalFilename()).isEmpty()) {
+            throw new ContactImportException("Unsupported file type: " + file.getOriginalFilename());
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        Path spooled = spooled(jobId);
+        // File, not Path: the container can then rename its temp file when it sits in the spool directory
+        file.transferTo(spooled.toFile());
+
+        ContactImportJob job = new ContactImportJob(jobId, file.getOriginalFilename(), Files.size(spooled), dryRun);
+        jobs.put(jobId, job);
+
+        try {
+            execute(job, spooled);
+        } catch (ContactImportException e) {
+            jobs.remove(jobId);
+            deleteQuietly(spooled);
+            if (!dryRun) {
+                deleteCheckpointQuietly(jobId);
+            }
+            throw e;
+        }
+
+        log.info("Queued {} job {} for file '{}' ({} bytes)",
+                dryRun ? "dry-run" : "import", jobId, job.getFileName(), job.getTotalBytes());
+        return job;
+    }
+
+    /**
+     * Runs a failed import again on its spooled file. Rows committed before the
+     * failure are skipped, so the import continues after its last chunk.
+     */
+    public ContactImportJob resume(String jobId) throws IOException {
+        ContactImportJob failed = jobs.get(jobId);
+        Path spooled = spooled(jobId);
+        if (failed == null || !failed.isResumable() || !Files.exists(spooled)) {
+            throw new ContactImportException("Import job " + jobId + " cannot be resumed.");
+        }
+
+        ContactImportJob job = new ContactImportJob(jobId, failed.getFileName(), Files.size(spooled));
+        if (!jobs.replace(jobId, failed, job)) {
+            throw new ContactImportException("Import job " + jobId + " is already being resumed.");
+        }
+
+        try {
+            // the checkpoint of the failed run stays for the next attempt
+            execute(job, spooled);
+        } catch (ContactImportException e) {
+            jobs.replace(jobId, job, failed);
+            throw e;
+        }
+        log.info("Resuming import job {} for file '{}'", jobId, job.getFileName());
+        return job;
+    }
+
+    /** Failed imports that can be resumed, most recent first. */
+    public List<ContactImportJob> findResumableJobs() {
+        return jobs.values().stream()
+                .filter(ContactImportJob::isResumable)
+                .sorted(Comparator.comparing(ContactImportJob::getSubmittedAt).reversed())
+                .toList();
+    }
+
+    /**
+     * Lists imports that failed, or were still running when the server stopped,
+     * as failed and resumable, with the failure recorded in their checkpoint.
+     * They are not restarted automatically, so an admin decides whether a
+     * half-imported file should be finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreUnfinishedImports() {
+        for (ContactImportCheckpoint checkpoint : checkpoints.findUnfinished()) {
+            String jobId = checkpoint.getJobId();
+            if (jobs.containsKey(jobId)) {
+                continue;
+            }
+            Path spooled = spooled(jobId);
+            if (!Files.exists(spooled)) {
+                log.warn("Dropping checkpoint of import job {}: its spooled file is gone", jobId);
+                checkpoints.delete(jobId);
+                continue;
+            }
+
+            long committed = checkpoints.committedRows(jobId);
+            ContactImportJob job = new ContactImportJob(jobId, checkpoint.getFileName(), sizeOf(spooled));
+            if (checkpoint.getFailure() != null) {
+                job.markFailed(checkpoint.getFailure());
+            } else {
+                job.markFailed("interrupted by a server restart after " + committed + " committed rows.");
+            }
+            job.setResumable(true);
+            jobs.put(jobId, job);
+            log.info("Import job {} ('{}') stopped after {} rows and can be resumed",
+                    jobId, checkpoint.getFileName(), committed);
+        }
+    }
+
+    // hashes the whole file, so it runs on the worker rather than the request thread
+    private ImportCheckpoint checkpointFor(ContactImportJob job, Path spooled) throws IOException {
+        return checkpoints.forJob(job.getId(), job.getFileName(), sha256(spooled),
+                auditorAware.getCurrentAuditor().orElse(null));
+    }
+
+    private void execute(ContactImportJob job, Path spooled) {
+        try {
+            // keep the uploading admin as auditor (createdBy / updatedBy) on the worker thread
+            executor.execute(new DelegatingSecurityContextRunnable(() -> run(job, spooled)));
+        } catch (RejectedExecutionException e) {
+            throw new ContactImportException("Too many imports are already queued. Please try again later.");
+        }
+    }
+
+    public Optional<ContactImportJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /** The rejected rows of a finished dry run, if it rejected any. */
+    public Optional<Path> findRejects(String jobId) {
+        ContactImportJob job = jobs.get(jobId);
+        if (job == null || !job.isDryRun() || !job.isFinished()) {
+            return Optional.empty();
+        }
+        Path rejects = rejectsFile(jobId);
+        return Files.exists(rejects) ? Optional.of(rejects) : Optional.empty();
+    }
+
+    private void run(ContactImportJob job, Path spooled) {
+        job.markRunning();
+        log.info("Import job {} started", job.getId());
+
+        ImportCheckpoint checkpoint = null;
+        boolean keepForResume = false;
+        // progress counts the raw (possibly compressed) bytes against the spooled file size
+        try (InputStream in = new ProgressInputStream(Files.newInputStream(spooled), job)) {
+            if (job.isDryRun()) {
+                preview(job, in);
+                return;
+            }
+            checkpoint = checkpointFor(job, spooled);
+            int imported = contactService.importContacts(in, job.getFormat(), job, checkpoint);
+            job.markCompleted(imported);
+            log.info("Import job {} completed: {} rows, {} skipped, {} rejected, {} rows/sec",
+                    job.getId(), imported, job.getRowsSkipped(), job.getErrorCount(), job.getRowsPerSecond());
+        } catch (ContactImportException e) {
+            keepForResume = fail(job, checkpoint, e, e.getMessage());
+            log.warn("Import job {} failed{}: {}", job.getId(), keepForResume ? " (resumable)" : "", e.getMessage());
+        } catch (Exception e) {
+            keepForResume = fail(job, checkpoint, e, "unexpected error, see server log");
+            log.error("Import job {} failed{}", job.getId(), keepForResume ? " (resumable)" : "", e);
+        } finally {
+            if (!keepForResume) {
+                deleteQuietly(spooled);
+                if (!job.isDryRun()) {
+                    deleteCheckpointQuietly(job.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the job failed and returns whether it stays resumable. The failure
+     * is recorded and the flag set before the status changes, so whoever sees
+     * the failed job can resume it right away.
+     */
+    private boolean fail(ContactImportJob job, ImportCheckpoint checkpoint, Exception e, String failure) {
+        boolean resumable = checkpoint != null && isRetryable(e) && hasCommittedRows(job.getId());
+        if (resumable) {
+            recordFailureQuietly(job.getId(), failure);
+        }
+        job.setResumable(resumable);
+        job.markFailed(failure);
+        return resumable;
+    }
+
+    /**
+     * Whether running the import again may get further: database and I/O
+     * errors, or a run cut short by a shutdown. Invalid rows and files that
+     * cannot be parsed fail the same way every time.
+     */
+    static boolean isRetryable(Throwable failure) {
+        if (failure instanceof InvalidContactRowException) {
+            return false;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ZipException || cause instanceof EOFException
+                    || cause instanceof CharacterCodingException) {
+                return false;
+            }
+            if (cause instanceof DataAccessException || cause instanceof TransactionException
+                    || cause instanceof PersistenceException || cause instanceof SQLException
+                    || cause instanceof IOException || cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // with nothing committed yet, a resume would be no different from a new upload
+    private boolean hasCommittedRows(String jobId) {
+        try {
+            return checkpoints.committedRows(jobId) > 0;
+        } catch (RuntimeException e) {
+            log.warn("Could not read the checkpoint of import job {}", jobId, e);
+            return false;
+        }
+    }
+
+    private void preview(ContactImportJob job, InputStream in) throws IOException {
+        Path rejects = rejectsFile(job.getId());
+        ContactImportPreview preview;
+        try (Writer out = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            preview = contactService.previewImport(in, job.getFormat(), job, out);
+        } catch (RuntimeException | IOException e) {
+            deleteQuietly(rejects);
+            throw e;
+        }
+        if (preview.getRejected() == 0) {
+            deleteQuietly(rejects);
+        }
+        job.markPreviewed(preview);
+        log.info("Dry-run job {} completed: {} rows checked, {} rejected",
+                job.getId(), preview.getTotal(), preview.getRejected());
+    }
+
+    private Path spooled(String jobId) {
+        return spoolDir.resolve(jobId + ".upload");
+    }
+
+    private Path rejectsFile(String jobId) {
+        return spoolDir.resolve(jobId + "-rejects.csv");
+    }
+
+    private void purgeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(jobRetention);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.isFinished() && job.getFinishedAt().isBefore(cutoff);
+            if (expired && job.isDryRun()) {
+                deleteQuietly(rejectsFile(job.getId()));
+            }
+            if (expired && job.isResumable()) {
+                deleteQuietly(spooled(job.getId()));
+                deleteCheckpointQuietly(job.getId());
+            }
+            return expired;
+        });
+    }
+
+    private void recordFailureQuietly(String jobId, String failure) {
+        try {
+            checkpoints.recordFailure(jobId, failure);
+        } catch (RuntimeException e) {
+            log.warn("Could not record the failure of import job {}", jobId, e);
+        }
+    }
+
+    private void deleteCheckpointQuietly(String jobId) {
+        try {
+            checkpoints.delete(jobId);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete the checkpoint of import job {}", jobId, e);
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class ProgressInputStream extends FilterInputStream {
+
+        private final ContactImportJob job;
+
+        ProgressInputStream(InputStream in, ContactImportJob job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                job.addBytesRead(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                job.addBytesRead(n);
+            }
+            return n;
+        }
+    }
+}
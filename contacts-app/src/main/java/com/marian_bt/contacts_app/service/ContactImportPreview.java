@@ -0,0 +1,42 @@
+package com.marian_bt.contacts_app.service;
+
+/**
+ * Outcome of a dry-run import: what the file would do to the stored contacts.
+ * Every data row is counted exactly once.
+ */
+public class ContactImportPreview {
+
+    private long inserts;
+    private long updates;
+    private long unchanged;
+    private long duplicates;
+    private long rejected;
+
+    void addInsert() { inserts++; }
+    void addUpdate() { updates++; }
+    void addUnchanged() { unchanged++; }
+    void addDuplicate() { duplicates++; }
+    void addRejected() { rejected++; }
+
+    /** Rows whose email is not stored yet. */
+    public long getInserts() { return inserts; }
+
+    /** Rows that would change an existing contact. */
+    public long getUpdates() { return updates; }
+
+    /** Rows identical to the stored contact. */
+    public long getUnchanged() { return unchanged; }
+
+    /** Rows repeating an email seen earlier in the file; they are applied over the earlier row. */
+    public long getDuplicates() { return duplicates; }
+
+    /**
+     * Rows without an email, which the import skips, and rows failing
+     * validation, which would make the import fail.
+     */
+    public long getRejected() { return rejected; }
+
+    public long getTotal() {
+        return inserts + updates + unchanged + duplicates + rejected;
+    }
+}
@@ -0,0 +1,34 @@
+package com.marian_bt.contacts_app.service;
+
+/**
+ * Receives progress callbacks from a running contact import.
+ */
+public interface ContactImportProgress {
+
+    ContactImportProgress NONE = new ContactImportProgress() {
+        @Override
+        public void rowsImported(int rows) {
+        }
+
+        @Override
+        public void rowRejected() {
+        }
+    };
+
+    /**
+     * Called after a chunk of rows has been written.
+     */
+    void rowsImported(int rows);
+
+    /**
+     * Called for every data row that could not be imported (e.g. no email value).
+     */
+    void rowRejected();
+
+    /**
+     * Called for rows a resumed import skips because an earlier run already
+     * committed them.
+     */
+    default void rowsSkipped(int rows) {
+    }
+}
@@ -0,0 +1,250 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.config.CacheConfig;
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes chunks of parsed CSV rows. Runs in the caller's transaction, which
+ * every import opens per chunk: each chunk commits (and advances the
+ * checkpoint) on its own, and caches are invalidated when it does. On MySQL
+ * and H2 rows go through the repository's native bulk upsert; other databases
+ * (or contacts.import.bulk-upsert=false) use the JPA path.
+ */
+@Component
+class ContactImportWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactImportWriter.class);
+
+    private final ContactRepository contactRepository;
+    private final ContactSearchIndex searchIndex;
+    private final ContactCountCache countCache;
+    private final Cache searchCache;
+    private final EntityManager entityManager;
+    private final AuditorAware<String> auditorAware;
+    private final Validator validator;
+    private final boolean bulkUpsertEnabled;
+    private final int upsertBatchSize;
+    private volatile Boolean bulkUpsert;
+
+    ContactImportWriter(ContactRepository contactRepository,
+                        ContactSearchIndex searchIndex,
+                        ContactCountCache countCache,
+                        CacheManager cacheManager,
+                        EntityManager entityManager,
+                        AuditorAware<String> auditorAware,
+                        Validator validator,
+                        @Value("${contacts.import.bulk-upsert:true}") boolean bulkUpsertEnabled,
+                        @Value("${contacts.import.upsert-batch-size:500}") int upsertBatchSize) {
+        this.contactRepository = contactRepository;
+        this.searchIndex = searchIndex;
+        this.countCache = countCache;
+        this.searchCache = cacheManager.getCache(CacheConfig.CONTACT_SEARCH_CACHE);
+        this.entityManager = entityManager;
+        this.auditorAware = auditorAware;
+        this.validator = validator;
+        this.bulkUpsertEnabled = bulkUpsertEnabled;
+        this.upsertBatchSize = upsertBatchSize;
+    }
+
+    int writeChunk(ContactCsv.ColumnPlan plan, List<String[]> rows) {
+        return useBulkUpsert() ? upsertChunk(plan, rows) : mergeChunk(plan, rows);
+    }
+
+    private boolean useBulkUpsert() {
+        Boolean bulk = bulkUpsert;
+        if (bulk == null) {
+            bulk = bulkUpsertEnabled && contactRepository.supportsBulkUpsert();
+            bulkUpsert = bulk;
+            log.info("CSV imports write through {}", bulk ? "native bulk upserts" : "JPA");
+        }
+        return bulk;
+    }
+
+    /**
+     * Writes one chunk with native multi-row upserts: a handful of statements
+     * instead of a lookup plus one insert or update per row. Rows are compared
+     * with the stored contacts first and identical ones are left alone, so
+     * re-importing an unchanged file writes nothing and keeps updatedAt.
+     * Rows are validated like entities would be, audit columns are filled here,
+     * and the Contact second-level cache region is evicted on commit since
+     * Hibernate does not see these writes.
+     */
+    private int upsertChunk(ContactCsv.ColumnPlan plan, List<String[]> rows) {
+        // the same email may appear several times in one chunk; fold them first
+        Map<String, String[]> rowsByEmail = new LinkedHashMap<>();
+        for (String[] row : rows) {
+            rowsByEmail.merge(ContactCsv.email(row).toLowerCase(Locale.ROOT), row, ContactCsv::merge);
+        }
+
+        Map<String, Contact> stored = new HashMap<>();
+        for (Contact existing : contactRepository.findByLowerCaseEmailIn(rowsByEmail.keySet())) {
+            stored.put(existing.getEmail().toLowerCase(Locale.ROOT), existing);
+        }
+        entityManager.clear();
+
+        LocalDateTime now = LocalDateTime.now();
+        String auditor = auditorAware.getCurrentAuditor().orElse(null);
+
+        // rows that leave different flags untouched need different UPDATE clauses
+        Map<Set<String>, List<Contact>> byAttributes = new HashMap<>();
+        int unchanged = 0;
+        for (Map.Entry<String, String[]> entry : rowsByEmail.entrySet()) {
+            String[] row = entry.getValue();
+            Contact existing = stored.get(entry.getKey());
+            if (existing != null && plan.isUnchanged(existing, row)) {
+                unchanged++;
+                continue;
+            }
+
+            Contact contact = new Contact();
+            contact.setId(existing != null ? existing.getId() : null);
+            contact.setEmail(ContactCsv.email(row));
+            plan.apply(contact, row);
+            contact.setCreatedAt(now);
+            contact.setCreatedBy(auditor);
+            contact.setUpdatedAt(now);
+            contact.setUpdatedBy(auditor);
+
+            validate(contact);
+            byAttributes.computeIfAbsent(ContactCsv.appliedAttributes(row), k -> new ArrayList<>()).add(contact);
+
+            if (existing != null) {
+                // the detached copy becomes what the row holds after the upsert, including columns it leaves alone
+                ContactSearchIndex.Entry before = searchIndex.entryOf(existing);
+                existing.setEmail(contact.getEmail());
+                plan.apply(existing, row);
+                searchIndex.replaceAfterCommit(before, existing);
+            }
+        }
+
+        if (byAttributes.isEmpty()) {
+            log.debug("Chunk of {} rows is unchanged, nothing written", rows.size());
+            return rows.size();
+        }
+
+        for (Map.Entry<Set<String>, List<Contact>> group : byAttributes.entrySet()) {
+            contactRepository.upsertByEmail(group.getValue(), group.getKey(), upsertBatchSize);
+            for (Contact contact : group.getValue()) {
+                if (!stored.containsKey(contact.getEmail().toLowerCase(Locale.ROOT))) {
+                    searchIndex.addAfterCommit(contact);
+                }
+            }
+        }
+        invalidateCachesAfterCommit();
+        jakarta.persistence.Cache secondLevelCache = entityManager.getEntityManagerFactory().getCache();
+        TransactionCallbacks.afterCommit(() -> secondLevelCache.evict(Contact.class));
+
+        log.debug("Upserted chunk of {} rows ({} distinct emails, {} unchanged)",
+                rows.size(), rowsByEmail.size(), unchanged);
+        return rows.size();
+    }
+
+    /**
+     * Upserts one chunk of CSV rows: existing contacts are resolved with a single
+     * IN query, new ones are persisted together so Hibernate can batch the inserts,
+     * and the persistence context is flushed and cleared before the next chunk.
+     */
+    private int mergeChunk(ContactCsv.ColumnPlan plan, List<String[]> rows) {
+        Set<String> emails = new HashSet<>();
+        for (String[] row : rows) {
+            emails.add(ContactCsv.email(row).toLowerCase(Locale.ROOT));
+        }
+
+        Map<String, Contact> contactsByEmail = new HashMap<>();
+        Map<Contact, ContactSearchIndex.Entry> indexedBefore = new IdentityHashMap<>();
+        for (Contact existing : contactRepository.findByLowerCaseEmailIn(emails)) {
+            contactsByEmail.put(existing.getEmail().toLowerCase(Locale.ROOT), existing);
+            indexedBefore.put(existing, searchIndex.entryOf(existing));
+        }
+
+        List<Contact> created = new ArrayList<>();
+        Set<Contact> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String[] row : rows) {
+            String email = ContactCsv.email(row);
+
+            // the same email may appear several times in one chunk; the last row wins
+            Contact contact = contactsByEmail.computeIfAbsent(email.toLowerCase(Locale.ROOT), key -> {
+                Contact fresh = new Contact();
+                created.add(fresh);
+                return fresh;
+            });
+
+            // untouched entities are not dirty, so Hibernate issues no UPDATE and auditing keeps updatedAt
+            if (!plan.isUnchanged(contact, row)) {
+                contact.setEmail(email);
+                plan.apply(contact, row);
+                changed.add(contact);
+            }
+        }
+
+        for (Contact contact : changed) {
+            validate(contact);
+        }
+        contactRepository.saveAll(created);
+        entityManager.flush();
+
+        for (Contact contact : changed) {
+            ContactSearchIndex.Entry before = indexedBefore.get(contact);
+            if (before != null) {
+                searchIndex.replaceAfterCommit(before, contact);
+            } else {
+                searchIndex.addAfterCommit(contact);
+            }
+        }
+        if (!changed.isEmpty()) {
+            invalidateCachesAfterCommit();
+        }
+        entityManager.clear();
+
+        log.debug("Imported chunk of {} rows ({} new, {} updated, {} unchanged)",
+                rows.size(), created.size(), changed.size() - created.size(),
+                contactsByEmail.size() - changed.size());
+        return rows.size();
+    }
+
+    /** Fails the import on the first invalid row, before anything of its chunk is written. */
+    private void validate(Contact contact) {
+        Set<ConstraintViolation<Contact>> violations = validator.validate(contact);
+        if (!violations.isEmpty()) {
+            throw new InvalidContactRowException(contact.getEmail(), violations.stream()
+                    .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Totals and cached list/search pages go stale once the chunk commits, not
+     * when the whole import ends. The search cache is transaction-aware, so
+     * its clear is deferred to the commit as well.
+     */
+    private void invalidateCachesAfterCommit() {
+        countCache.invalidateAfterCommit();
+        searchCache.clear();
+    }
+}
@@ -0,0 +1,25 @@
+package com.marian_bt.contacts_app.service;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Page of contacts whose total may be an estimate: either a count cached before
+ * the latest write, or a lower bound while the exact count is computed in the
+ * background.
+ */
+public class ContactPage extends PageImpl<ContactSummary> {
+
+    private final boolean totalApproximate;
+
+    public ContactPage(List<ContactSummary> content, Pageable pageable, long total, boolean totalApproximate) {
+        super(content, pageable, total);
+        this.totalApproximate = totalApproximate;
+    }
+
+    public boolean isTotalApproximate() {
+        return totalApproximate;
+    }
+}
@@ -0,0 +1,42 @@
+package com.marian_bt.contacts_app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Cache of contact list/search pages that drops pages loaded before the latest
+ * contact write.
+ * <p>
+ * The cache is transaction-aware, so a reader's put only lands when the
+ * reader's transaction commits. A writer committing in between evicts
+ * everything first, and the reader would then store the page it read before
+ * that write. Pages are keyed by {@link ContactPageKey}, which records the
+ * generation the load started at; a put from an older generation is skipped,
+ * the same check {@link ContactCountCache#put} makes for counts.
+ */
+public class ContactPageCache extends CaffeineCache {
+
+    private final ContactCountCache generations;
+
+    public ContactPageCache(String name, Cache<Object, Object> cache, boolean allowNullValues,
+                            ContactCountCache generations) {
+        super(name, cache, allowNullValues);
+        this.generations = generations;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (isCurrent(key)) {
+            super.put(key, value);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return isCurrent(key) ? super.putIfAbsent(key, value) : get(key);
+    }
+
+    private boolean isCurrent(Object key) {
+        return !(key instanceof ContactPageKey pageKey) || pageKey.generation() == generations.currentGeneration();
+    }
+}
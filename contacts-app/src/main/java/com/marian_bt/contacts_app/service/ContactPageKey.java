@@ -0,0 +1,8 @@
+package com.marian_bt.contacts_app.service;
+
+/**
+ * Key of a cached list/search page: the query it answers and the
+ * {@link ContactCountCache} generation current when it started loading.
+ */
+public record ContactPageKey(String query, long generation) {
+}
@@ -3,6 +3,7 @@ package com.marian_bt.contacts_app.service;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 public class ContactSearchCriteria {
 
@@ -131,6 +132,14 @@ public class ContactSearchCriteria {
                 && updatedBefore == null;
     }
 
+    /**
+     * Key identifying the result set of these criteria; text matching is
+     * case-insensitive, so the key is lower-cased.
+     */
+    public String cacheKey() {
+        return toString().toLowerCase(Locale.ROOT);
+    }
+
     private boolean isBlank(String value) {
         return value == null || value.trim().isEmpty();
     }
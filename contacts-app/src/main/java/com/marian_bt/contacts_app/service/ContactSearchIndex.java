@@ -0,0 +1,371 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.config.PrimaryReads;
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over the short text columns of {@link Contact}.
+ * <p>
+ * Substring criteria are resolved to a set of candidate ids before the database
+ * is queried, so the LIKE predicates only run against a handful of rows instead
+ * of a full table scan. The index only ever narrows the search: the database
+ * still evaluates every predicate, so a stale entry can cost a wasted row read
+ * but never a wrong result. Missing entries would hide rows, which is why every
+ * write path adds contacts after its transaction commits.
+ * <p>
+ * Free-text {@code comments} are not indexed; terms shorter than three
+ * characters cannot be resolved through trigrams and fall back to the plain
+ * database search.
+ */
+@Component
+public class ContactSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactSearchIndex.class);
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    enum Field {
+        TITLE(Contact::getTitle, ContactSearchCriteria::getTitle),
+        FIRST_NAME(Contact::getFirstName, ContactSearchCriteria::getFirstName),
+        LAST_NAME(Contact::getLastName, ContactSearchCriteria::getLastName),
+        GENDER(Contact::getGender, ContactSearchCriteria::getGender),
+        EMAIL(Contact::getEmail, ContactSearchCriteria::getEmail),
+        INSTITUTION(Contact::getInstitution, ContactSearchCriteria::getInstitution),
+        FACULTY(Contact::getFaculty, ContactSearchCriteria::getFaculty),
+        STUDY_DOMAIN(Contact::getStudyDomain, ContactSearchCriteria::getStudyDomain),
+        PERS_GROUP(Contact::getPersGroup, ContactSearchCriteria::getPersGroup),
+        FUNCTION(Contact::getFunction, ContactSearchCriteria::getFunction),
+        COUNTRY(Contact::getCountry, ContactSearchCriteria::getCountry),
+        INTEREST(Contact::getInterest, ContactSearchCriteria::getInterest);
+
+        private final Function<Contact, String> value;
+        private final Function<ContactSearchCriteria, String> criterion;
+
+        Field(Function<Contact, String> value, Function<ContactSearchCriteria, String> criterion) {
+            this.value = value;
+            this.criterion = criterion;
+        }
+    }
+
+    /**
+     * Normalized field values of one contact, captured so its postings can be
+     * removed later even after the entity itself has been modified.
+     */
+    public static final class Entry {
+        private final long id;
+        private final String[] values;
+
+        private Entry(long id, String[] values) {
+            this.id = id;
+            this.values = values;
+        }
+    }
+
+    private final ContactRepository contactRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final int maxCandidates;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Map<String, PostingList>> postings = new ArrayList<>();
+    private volatile boolean ready;
+
+    public ContactSearchIndex(ContactRepository contactRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${contacts.search.index.enabled:true}") boolean enabled,
+                              @Value("${contacts.search.index.max-candidates:5000}") int maxCandidates) {
+        this.contactRepository = contactRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+        for (int i = 0; i < Field.values().length; i++) {
+            postings.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("Contact search index is disabled");
+            return;
+        }
+        Thread builder = new Thread(this::rebuild, "contact-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Loads every contact into the index. Writes that happen meanwhile are
+     * applied as usual; the worst outcome of the overlap is a stale posting.
+     */
+    public void rebuild() {
+        long startedAt = System.nanoTime();
+        try {
+            // built from the primary, not a lagging replica
+            int indexed = readOnlyTransaction.execute(status -> PrimaryReads.call(() -> {
+                int count = 0;
+                try (Stream<Contact> contacts = contactRepository.streamAll(Specification.unrestricted(), Sort.unsorted())) {
+                    for (Iterator<Contact> it = contacts.iterator(); it.hasNext(); ) {
+                        add(entryOf(it.next()));
+                        if (++count % 1000 == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                }
+                return count;
+            }));
+            ready = true;
+            log.info("Contact search index built: {} contacts in {} ms",
+                    indexed, (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Building the contact search index failed; searches fall back to the database", e);
+        }
+    }
+
+    public Entry entryOf(Contact contact) {
+        Field[] fields = Field.values();
+        String[] values = new String[fields.length];
+        for (Field field : fields) {
+            values[field.ordinal()] = normalize(field.value.apply(contact));
+        }
+        return new Entry(contact.getId() != null ? contact.getId() : -1, values);
+    }
+
+    /**
+     * Indexes the contact once the current transaction commits.
+     */
+    public void addAfterCommit(Contact contact) {
+        if (!enabled) return;
+        Entry entry = entryOf(contact);
+        TransactionCallbacks.afterCommit(() -> add(entry));
+    }
+
+    /**
+     * Replaces the postings captured in {@code before} with the contact's
+     * current values once the current transaction commits.
+     */
+    public void replaceAfterCommit(Entry before, Contact contact) {
+        if (!enabled) return;
+        Entry after = entryOf(contact);
+        TransactionCallbacks.afterCommit(() -> {
+            remove(before);
+            add(after);
+        });
+    }
+
+    public void removeAfterCommit(Entry before) {
+        if (!enabled) return;
+        TransactionCallbacks.afterCommit(() -> remove(before));
+    }
+
+    /**
+     * Resolves the substring criteria to the ids of all contacts that may match.
+     *
+     * @return candidate ids in ascending order, or {@code null} when the index
+     * cannot narrow the search (not built yet, no indexable criteria, or too
+     * many candidates to be worth an IN list)
+     */
+    public List<Long> findCandidateIds(ContactSearchCriteria criteria) {
+        if (!enabled || !ready || criteria == null) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = null;
+            for (Field field : Field.values()) {
+                String term = normalize(ContactSpecifications.plainTerm(field.criterion.apply(criteria)));
+                if (term == null || term.length() < 3) {
+                    continue;
+                }
+                int[] matches = lookup(postings.get(field.ordinal()), term);
+                candidates = candidates == null ? matches : intersect(candidates, matches);
+                if (candidates.length == 0) {
+                    return List.of();
+                }
+            }
+
+            if (candidates == null || candidates.length > maxCandidates) {
+                return null;
+            }
+            List<Long> ids = new ArrayList<>(candidates.length);
+            for (int id : candidates) {
+                ids.add((long) id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Entry entry) {
+        if (entry.id < 0) return;
+        if (entry.id > Integer.MAX_VALUE) {
+            // postings store ints; beyond that the index cannot stay complete
+            ready = false;
+            log.warn("Contact id {} exceeds the search index range; disabling the index", entry.id);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Field field : Field.values()) {
+                String value = entry.values[field.ordinal()];
+                if (value == null) continue;
+                Map<String, PostingList> fieldPostings = postings.get(field.ordinal());
+                for (String trigram : trigrams(value)) {
+                    fieldPostings.computeIfAbsent(trigram, k -> new PostingList()).add((int) entry.id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Entry entry) {
+        if (entry.id < 0 || entry.id > Integer.MAX_VALUE) return;
+        lock.writeLock().lock();
+        try {
+            for (Field field : Field.values()) {
+                String value = entry.values[field.ordinal()];
+                if (value == null) continue;
+                Map<String, PostingList> fieldPostings = postings.get(field.ordinal());
+                for (String trigram : trigrams(value)) {
+                    PostingList list = fieldPostings.get(trigram);
+                    if (list != null && list.remove((int) entry.id) && list.isEmpty()) {
+                        fieldPostings.remove(trigram);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int[] lookup(Map<String, PostingList> fieldPostings, String term) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String trigram : trigrams(term)) {
+            PostingList list = fieldPostings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        // intersect the rarest trigrams first to keep the working set small
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        int[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).retainIn(result);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            result.add(value.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Lower-cases and strips accents so that the index is at least as lenient
+     * as the database's case- and accent-insensitive collation.
+     */
+    private static String normalize(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) return null;
+        String decomposed = Normalizer.normalize(trimmed.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("");
+    }
+
+    /**
+     * Sorted, duplicate-free list of contact ids backed by a growable int array.
+     */
+    private static final class PostingList {
+        private int[] ids = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return false;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        int[] retainIn(int[] sorted) {
+            int[] out = new int[sorted.length];
+            int n = 0;
+            for (int id : sorted) {
+                if (Arrays.binarySearch(ids, 0, size, id) >= 0) {
+                    out[n++] = id;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+}
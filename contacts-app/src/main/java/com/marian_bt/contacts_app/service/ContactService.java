@@ -3,15 +3,26 @@ package com.marian_bt.contacts_app.service;
 import com.marian_bt.contacts_app.domain.Contact;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface ContactService {
 
+    /**
+     * All contacts in database order (last name, first name, id). Loads the
+     * whole table; use {@link #streamContacts} with empty criteria for exports.
+     */
     List<Contact> getAllContacts();
 
-    Page<Contact> getAllContacts(Pageable pageable);
+    /** One page of the list view, as summaries (no long text columns, nothing managed). */
+    Page<ContactSummary> getAllContacts(Pageable pageable);
 
     Contact getContactById(Long id);
 
@@ -23,7 +34,63 @@ public interface ContactService {
 
     List<Contact> searchContacts(ContactSearchCriteria criteria);
 
-    Page<Contact> searchContacts(ContactSearchCriteria criteria, Pageable pageable);
+    Page<ContactSummary> searchContacts(ContactSearchCriteria criteria, Pageable pageable);
 
+    /**
+     * Keyset pagination: returns up to {@code size} contacts that come after
+     * {@code after} in the default ordering (or from the start when it is null).
+     * No total count is computed, and the cost does not grow with the page depth.
+     */
+    Slice<ContactSummary> scrollContacts(ContactSearchCriteria criteria, ContactCursor after, int size);
+
+    /**
+     * Hands every contact matching the criteria to {@code action}, one at a time,
+     * without materializing the result list. Each contact is detached after the
+     * action returns.
+     */
+    void streamContacts(ContactSearchCriteria criteria, Consumer<Contact> action);
+
+    /**
+     * Writes every contact matching the criteria to {@code out} in the given
+     * format, row by row as they are read. {@code out} is closed at the end,
+     * but left open and the file unfinished when the export fails midway.
+     *
+     * @throws ContactExportException before anything is written, when the
+     *                                result does not fit the format (XLSX row limit)
+     */
+    void exportContacts(ContactSearchCriteria criteria, ContactExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Only the given fields of the contacts matching the criteria (all contacts
+     * when empty), one map per contact keyed by attribute name. Selects just
+     * those columns and counts no total.
+     */
+    Slice<Map<String, Object>> findContactFields(ContactSearchCriteria criteria, List<ContactField> fields,
+                                                 Pageable pageable);
+
+    /** Only the given fields of one contact. */
+    Map<String, Object> getContactFields(Long id, List<ContactField> fields);
+
+    /** Imports a CSV file. */
     int importContacts (InputStream inputStream);
+
+    int importContacts(InputStream inputStream, ContactImportProgress progress);
+
+    /**
+     * Imports the file, in the given format, chunk by chunk, each chunk in a transaction of its own
+     * that also advances {@code checkpoint}. Rows the checkpoint reports as
+     * committed are skipped, so a failed import can be run again on the same
+     * file and continues after its last committed chunk.
+     */
+    int importContacts(InputStream inputStream, ContactImportFormat format,
+                       ContactImportProgress progress, ImportCheckpoint checkpoint);
+
+    /**
+     * Dry run of {@link #importContacts}: parses and validates every row and
+     * compares it with the stored contacts, without opening a write transaction.
+     * Rejected rows are written to {@code rejects} as CSV (line number, errors
+     * and the imported columns) unless it is null.
+     */
+    ContactImportPreview previewImport(InputStream inputStream, ContactImportFormat format,
+                                       ContactImportProgress progress, Writer rejects);
 }
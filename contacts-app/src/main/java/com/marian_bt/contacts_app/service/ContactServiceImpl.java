@@ -1,46 +1,106 @@
 package com.marian_bt.contacts_app.service;
 
+import com.marian_bt.contacts_app.config.CacheConfig;
+import com.marian_bt.contacts_app.config.PrimaryReads;
 import com.marian_bt.contacts_app.domain.Contact;
 import com.marian_bt.contacts_app.repository.ContactRepository;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import jakarta.persistence.Tuple;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Transactional
 public class ContactServiceImpl implements ContactService {
 
     private static final Logger log = LoggerFactory.getLogger(ContactServiceImpl.class);
-    private final ContactRepository contactRepository;
+    private static final Sort DEFAULT_SORT = Sort.by(
+            Sort.Order.asc("lastName").ignoreCase(),
+            Sort.Order.asc("firstName").ignoreCase(),
+            Sort.Order.asc("id")
+    );
+
+    private static final String ALL_CONTACTS_KEY = "*";
+    private static final List<String> SUMMARY_ATTRIBUTES = attributesOf(ContactSummary.FIELDS);
 
-    public ContactServiceImpl(ContactRepository contactRepository) {
+    private final ContactRepository contactRepository;
+    private final ContactSearchIndex searchIndex;
+    private final ContactCountCache countCache;
+    private final EntityManager entityManager;
+    private final ContactImportWriter importWriter;
+    private final Validator validator;
+    private final TransactionTemplate chunkTransaction;
+    private final TransactionTemplate countTransaction;
+    private final int importChunkSize;
+    private final char importDelimiter;
+    private final int importParallelism;
+    private final int validationThreads;
+    private final boolean asyncCounts;
+
+    public ContactServiceImpl(ContactRepository contactRepository,
+                              ContactSearchIndex searchIndex,
+                              ContactCountCache countCache,
+                              EntityManager entityManager,
+                              ContactImportWriter importWriter,
+                              Validator validator,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${contacts.import.chunk-size:500}") int importChunkSize,
+                              @Value("${contacts.import.delimiter:,}") String importDelimiter,
+                              @Value("${contacts.import.parallelism:1}") int importParallelism,
+                              @Value("${contacts.import.validation-threads:0}") int validationThreads,
+                              @Value("${contacts.search.count-mode:async}") String countMode) {
         this.contactRepository = contactRepository;
+        this.searchIndex = searchIndex;
+        this.countCache = countCache;
+        this.entityManager = entityManager;
+        this.importWriter = importWriter;
+        this.validator = validator;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.countTransaction = new TransactionTemplate(transactionManager);
+        this.countTransaction.setReadOnly(true);
+        this.importChunkSize = importChunkSize;
+        this.importDelimiter = "tab".equalsIgnoreCase(importDelimiter) ? '\t' : importDelimiter.charAt(0);
+        this.importParallelism = Math.max(1, importParallelism);
+        this.validationThreads = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        this.asyncCounts = "async".equalsIgnoreCase(countMode);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Contact> getAllContacts() {
-        List<Contact> all = contactRepository.findAll();
-        all.sort(Comparator
-                .comparing(Contact::getLastName, Comparator.nullsLast(String::compareToIgnoreCase))
-                .thenComparing(Contact::getFirstName, Comparator.nullsLast(String::compareToIgnoreCase)));
-        return all;
+        return contactRepository.findAll(DEFAULT_SORT);
     }
 
+    // the entity lands in the second-level cache, so it is read from the primary,
+    // and stored even though read-only transactions bypass that cache otherwise
     @Override
+    @Transactional(readOnly = true)
     public Contact getContactById(Long id) {
         log.debug("Fetching contact with id: {}", id);
-        return contactRepository.findById(id)
+        return Optional.ofNullable(PrimaryReads.call(() -> entityManager.find(Contact.class, id, CacheStoreMode.USE)))
                 .orElseThrow(() -> {
                     log.warn("Contact not found with id: {}", id);
                     return new ContactNotFoundException(id);
@@ -48,14 +108,18 @@ public class ContactServiceImpl implements ContactService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CONTACT_SEARCH_CACHE, allEntries = true)
     public Contact createContact(Contact contact, String currentUsername) {
         log.info("User '{}' creating new contact with email: {}", currentUsername, contact.getEmail());
         Contact saved = contactRepository.save(contact);
+        searchIndex.addAfterCommit(saved);
+        countCache.invalidateAfterCommit();
         log.info("Contact created successfully with id: {}", saved.getId());
         return saved;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CONTACT_SEARCH_CACHE, allEntries = true)
     public Contact updateContact(Long id, Contact updatedContact, String currentUsername) {
         log.info("User '{}' updating contact with id: {}", currentUsername, id);
 
@@ -65,6 +129,14 @@ public class ContactServiceImpl implements ContactService {
                     return new ContactNotFoundException(id);
                 });
 
+        if (hasSameValues(existing, updatedContact)) {
+            // nothing to write: no UPDATE, and updatedAt/updatedBy keep pointing at the last real change
+            log.info("Contact {} unchanged, nothing to update", id);
+            return existing;
+        }
+
+        ContactSearchIndex.Entry indexed = searchIndex.entryOf(existing);
+
         existing.setTitle(updatedContact.getTitle());
         existing.setFirstName(updatedContact.getFirstName());
         existing.setLastName(updatedContact.getLastName());
@@ -89,329 +161,423 @@ public class ContactServiceImpl implements ContactService {
         existing.setComments(updatedContact.getComments());
 
         Contact saved = contactRepository.save(existing);
+        searchIndex.replaceAfterCommit(indexed, saved);
+        countCache.invalidateAfterCommit();
         log.info("Contact {} updated successfully", id);
         return saved;
     }
 
+    /** Compares the fields {@link #updateContact} copies. */
+    private static boolean hasSameValues(Contact existing, Contact updated) {
+        return Objects.equals(existing.getTitle(), updated.getTitle())
+                && Objects.equals(existing.getFirstName(), updated.getFirstName())
+                && Objects.equals(existing.getLastName(), updated.getLastName())
+                && Objects.equals(existing.getPersGroup(), updated.getPersGroup())
+                && Objects.equals(existing.getFunction(), updated.getFunction())
+                && Objects.equals(existing.getInstitution(), updated.getInstitution())
+                && Objects.equals(existing.getFaculty(), updated.getFaculty())
+                && Objects.equals(existing.getStudyDomain(), updated.getStudyDomain())
+                && Objects.equals(existing.getEmail(), updated.getEmail())
+                && Objects.equals(existing.getPhone1(), updated.getPhone1())
+                && Objects.equals(existing.getPhone2(), updated.getPhone2())
+                && Objects.equals(existing.getPostAddress(), updated.getPostAddress())
+                && Objects.equals(existing.getCountry(), updated.getCountry())
+                && Objects.equals(existing.getInterest(), updated.getInterest())
+                && existing.isCoilExp() == updated.isCoilExp()
+                && existing.isMobilityFin() == updated.isMobilityFin()
+                && Objects.equals(existing.getFundUse(), updated.getFundUse())
+                && existing.isContactedByIngenium() == updated.isContactedByIngenium()
+                && Objects.equals(existing.getGender(), updated.getGender())
+                && Objects.equals(existing.getComments(), updated.getComments());
+    }
+
     @Override
+    @CacheEvict(cacheNames = CacheConfig.CONTACT_SEARCH_CACHE, allEntries = true)
     public void deleteContact(Long id, String currentUsername) {
         log.info("User '{}' deleting contact with id: {}", currentUsername, id);
-        if (!contactRepository.existsById(id)) {
-            log.warn("Cannot delete - contact not found with id: {}", id);
-            throw new ContactNotFoundException(id);
-        }
-        contactRepository.deleteById(id);
+        Contact existing = contactRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Cannot delete - contact not found with id: {}", id);
+                    return new ContactNotFoundException(id);
+                });
+        ContactSearchIndex.Entry indexed = searchIndex.entryOf(existing);
+        contactRepository.delete(existing);
+        searchIndex.removeAfterCommit(indexed);
+        countCache.invalidateAfterCommit();
         log.info("Contact {} deleted successfully", id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Contact> searchContacts(ContactSearchCriteria criteria) {
         if (criteria == null || criteria.isEmpty()) {
-            return getAllContacts();
+            return contactRepository.findAll(DEFAULT_SORT);
+        }
+
+        return searchSpecification(criteria)
+                .map(spec -> contactRepository.findAll(spec, DEFAULT_SORT))
+                .orElseGet(List::of);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ContactSummary> scrollContacts(ContactSearchCriteria criteria, ContactCursor after, int size) {
+        Optional<Specification<Contact>> search = filterSpecification(criteria);
+        if (search.isEmpty()) {
+            return new SliceImpl<>(List.of(), PageRequest.of(0, size, DEFAULT_SORT), false);
+        }
+        Specification<Contact> spec = search.get();
+        if (after != null) {
+            spec = spec.and(ContactSpecifications.after(after));
         }
 
-        String title       = normalize(criteria.getTitle());
-        String firstName   = normalize(criteria.getFirstName());
-        String lastName    = normalize(criteria.getLastName());
-        String institution = normalize(criteria.getInstitution());
-        String email       = normalize(criteria.getEmail());
-        String persGroup   = normalize(criteria.getPersGroup());
-        String country     = normalize(criteria.getCountry());
-        String faculty     = normalize(criteria.getFaculty());
-        String studyDomain = normalize(criteria.getStudyDomain());
-        String gender      = normalize(criteria.getGender());
-        String function    = normalize(criteria.getFunction());
-        String interest    = normalize(criteria.getInterest());
-
-        String pastEvent   = normalize(criteria.getPastEvent());
-        String comments    = normalize(criteria.getComments());
-
-        Boolean contactedByIngenium = criteria.getContactedByIngenium();
-        Boolean coilExp     = criteria.getCoilExp();
-        Boolean mobilityFin = criteria.getMobilityFin();
-
-        LocalDateTime createdAfter  = criteria.getCreatedAfter();
-        LocalDateTime createdBefore = criteria.getCreatedBefore();
-        LocalDateTime updatedAfter  = criteria.getUpdatedAfter();
-        LocalDateTime updatedBefore = criteria.getUpdatedBefore();
-
-        return contactRepository.searchContacts(
-                title,
-                firstName,
-                lastName,
-                gender,
-                email,
-                institution,
-                faculty,
-                studyDomain,
-                persGroup,
-                function,
-                country,
-                interest,
-                pastEvent,
-                comments,
-                contactedByIngenium,
-                coilExp,
-                mobilityFin,
-                createdAfter,
-                createdBefore,
-                updatedAfter,
-                updatedBefore
-        );
+        return findSummaries(spec, PageRequest.of(0, size, DEFAULT_SORT));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamContacts(ContactSearchCriteria criteria, Consumer<Contact> action) {
+        Optional<Specification<Contact>> spec = filterSpecification(criteria);
+        if (spec.isEmpty()) {
+            return;
+        }
+
+        try (Stream<Contact> contacts = contactRepository.streamAll(spec.get(), DEFAULT_SORT)) {
+            contacts.forEach(contact -> {
+                action.accept(contact);
+                entityManager.detach(contact);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportContacts(ContactSearchCriteria criteria, ContactExportFormat format,
+                               OutputStream out) throws IOException {
+        if (format == ContactExportFormat.XLSX) {
+            long rows = filterSpecification(criteria).map(contactRepository::count).orElse(0L);
+            if (rows >= XlsxExportWriter.MAX_ROWS) {
+                throw new ContactExportException("The export has " + rows + " contacts, more than an Excel sheet holds ("
+                        + (XlsxExportWriter.MAX_ROWS - 1) + "). Export as CSV instead.");
+            }
+        }
+        ContactExportWriter.export(format.open(out), action -> streamContacts(criteria, action));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> findContactFields(ContactSearchCriteria criteria, List<ContactField> fields,
+                                                        Pageable pageable) {
+        Pageable sortedPageable = withDefaultSort(pageable);
+        Optional<Specification<Contact>> spec = filterSpecification(criteria);
+        if (spec.isEmpty()) {
+            return new SliceImpl<>(List.of(), sortedPageable, false);
+        }
+
+        List<Tuple> rows = contactRepository.findAttributes(spec.get(), attributesOf(fields), sortedPageable);
+        boolean hasNext = rows.size() > sortedPageable.getPageSize();
+        List<Map<String, Object>> content = new ArrayList<>(Math.min(rows.size(), sortedPageable.getPageSize()));
+        for (Tuple row : hasNext ? rows.subList(0, sortedPageable.getPageSize()) : rows) {
+            content.add(toFieldMap(row, fields));
+        }
+        return new SliceImpl<>(content, sortedPageable, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getContactFields(Long id, List<ContactField> fields) {
+        Specification<Contact> byId = (root, query, cb) -> cb.equal(root.get("id"), id);
+        List<Tuple> rows = contactRepository.findAttributes(byId, attributesOf(fields), PageRequest.of(0, 1));
+        if (rows.isEmpty()) {
+            throw new ContactNotFoundException(id);
+        }
+        return toFieldMap(rows.get(0), fields);
+    }
+
+    private static List<String> attributesOf(List<ContactField> fields) {
+        return fields.stream().map(ContactField::getAttribute).toList();
+    }
+
+    private static Map<String, Object> toFieldMap(Tuple row, List<ContactField> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            values.put(fields.get(i).getAttribute(), row.get(i));
+        }
+        return values;
+    }
+
+    /** All contacts for empty criteria, else {@link #searchSpecification}. */
+    private Optional<Specification<Contact>> filterSpecification(ContactSearchCriteria criteria) {
+        if (criteria == null || criteria.isEmpty()) {
+            return Optional.of(Specification.unrestricted());
+        }
+        return searchSpecification(criteria);
+    }
+
+    /**
+     * Turns the criteria into a query, narrowed by the search index when it can
+     * resolve the text criteria. Empty when the index proves nothing can match.
+     */
+    private Optional<Specification<Contact>> searchSpecification(ContactSearchCriteria criteria) {
+        List<Long> candidateIds = searchIndex.findCandidateIds(criteria);
+        if (candidateIds != null && candidateIds.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(ContactSpecifications.matching(criteria, candidateIds));
     }
 
     private Pageable withDefaultSort(Pageable pageable) {
         if (pageable.getSort().isUnsorted()) {
-            Sort defaultSort = Sort.by(
-                    Sort.Order.asc("lastName").ignoreCase(),
-                    Sort.Order.asc("firstName").ignoreCase()
-            );
             return PageRequest.of(
                     pageable.getPageNumber(),
                     pageable.getPageSize(),
-                    defaultSort
+                    DEFAULT_SORT
             );
         }
         return pageable;
     }
 
+    // pages whose total is still being counted are not cached; cached pages are
+    // read from the primary, not a replica. Keys carry the write generation, so
+    // ContactPageCache drops pages a write overtook
     @Override
-    public Page<Contact> getAllContacts(Pageable pageable) {
+    @Cacheable(cacheNames = CacheConfig.CONTACT_SEARCH_CACHE,
+            key = "new com.marian_bt.contacts_app.service.ContactPageKey('all:' + #pageable, @contactCountCache.currentGeneration())",
+            unless = "#result instanceof T(com.marian_bt.contacts_app.service.ContactPage) && #result.totalApproximate")
+    @Transactional(readOnly = true)
+    public Page<ContactSummary> getAllContacts(Pageable pageable) {
         Pageable sortedPageable = withDefaultSort(pageable);
-        return contactRepository.findAll(sortedPageable);
+        return PrimaryReads.call(() -> findPage(Specification.unrestricted(), ALL_CONTACTS_KEY, sortedPageable));
     }
 
     @Override
-    public Page<Contact> searchContacts(ContactSearchCriteria criteria, Pageable pageable) {
+    @Cacheable(cacheNames = CacheConfig.CONTACT_SEARCH_CACHE,
+            key = "new com.marian_bt.contacts_app.service.ContactPageKey("
+                    + "'search:' + (#criteria == null ? '' : #criteria.cacheKey()) + ':' + #pageable, "
+                    + "@contactCountCache.currentGeneration())",
+            unless = "#result instanceof T(com.marian_bt.contacts_app.service.ContactPage) && #result.totalApproximate")
+    @Transactional(readOnly = true)
+    public Page<ContactSummary> searchContacts(ContactSearchCriteria criteria, Pageable pageable) {
         if (criteria == null || criteria.isEmpty()) {
             return getAllContacts(pageable);
         }
 
-        String title       = normalize(criteria.getTitle());
-        String firstName   = normalize(criteria.getFirstName());
-        String lastName    = normalize(criteria.getLastName());
-        String institution = normalize(criteria.getInstitution());
-        String email       = normalize(criteria.getEmail());
-        String persGroup   = normalize(criteria.getPersGroup());
-        String country     = normalize(criteria.getCountry());
-        String faculty     = normalize(criteria.getFaculty());
-        String studyDomain = normalize(criteria.getStudyDomain());
-        String gender      = normalize(criteria.getGender());
-        String function    = normalize(criteria.getFunction());
-        String interest    = normalize(criteria.getInterest());
-        String pastEvent   = normalize(criteria.getPastEvent());
-        String comments    = normalize(criteria.getComments());
-
-        Boolean contactedByIngenium = criteria.getContactedByIngenium();
-        Boolean coilExp     = criteria.getCoilExp();
-        Boolean mobilityFin = criteria.getMobilityFin();
-
-        LocalDateTime createdAfter  = criteria.getCreatedAfter();
-        LocalDateTime createdBefore = criteria.getCreatedBefore();
-        LocalDateTime updatedAfter  = criteria.getUpdatedAfter();
-        LocalDateTime updatedBefore = criteria.getUpdatedBefore();
-
         Pageable sortedPageable = withDefaultSort(pageable);
+        return PrimaryReads.call(() -> searchSpecification(criteria)
+                .map(spec -> findPage(spec, criteria.cacheKey(), sortedPageable))
+                .orElseGet(() -> new ContactPage(List.of(), sortedPageable, 0, false)));
+    }
 
-        return contactRepository.searchContactsPaged(
-                title,
-                firstName,
-                lastName,
-                gender,
-                email,
-                institution,
-                faculty,
-                studyDomain,
-                persGroup,
-                function,
-                country,
-                interest,
-                pastEvent,
-                comments,
-                contactedByIngenium,
-                coilExp,
-                mobilityFin,
-                createdAfter,
-                createdBefore,
-                updatedAfter,
-                updatedBefore,
-                sortedPageable
-        );
+    /**
+     * Loads one page of content and attaches a total from the count cache.
+     * The content query fetches one extra row, which settles the total for
+     * free on the last page. Otherwise a COUNT runs: inline in "exact" mode,
+     * or in the background in "async" mode, where the page is rendered with
+     * the previous count (or a lower bound) marked as approximate.
+     */
+    private Page<ContactSummary> findPage(Specification<Contact> spec, String countKey, Pageable pageable) {
+        long generation = countCache.currentGeneration();
+        Slice<ContactSummary> slice = findSummaries(spec, pageable);
+        List<ContactSummary> content = slice.getContent();
+
+        if (!slice.hasNext() && (!content.isEmpty() || pageable.getOffset() == 0)) {
+            long total = pageable.getOffset() + content.size();
+            countCache.put(countKey, total, generation);
+            return new ContactPage(content, pageable, total, false);
+        }
+
+        Long exact = countCache.exact(countKey);
+        if (exact != null) {
+            return new ContactPage(content, pageable, exact, false);
+        }
+
+        if (!asyncCounts) {
+            long total = countCache.countNow(countKey, () -> contactRepository.count(spec));
+            return new ContactPage(content, pageable, total, false);
+        }
+
+        countCache.refreshAsync(countKey,
+                () -> countTransaction.execute(status -> PrimaryReads.call(() -> contactRepository.count(spec))));
+        long lowerBound = pageable.getOffset() + content.size() + (slice.hasNext() ? 1 : 0);
+        Long estimate = countCache.estimate(countKey);
+        return new ContactPage(content, pageable,
+                estimate != null ? Math.max(estimate, lowerBound) : lowerBound, true);
     }
 
-    private String normalize(String value) {
-        if (value == null) {
-            return null;
+    // one extra row tells whether there is a next page without counting
+    private Slice<ContactSummary> findSummaries(Specification<Contact> spec, Pageable pageable) {
+        List<Tuple> rows = contactRepository.findAttributes(spec, SUMMARY_ATTRIBUTES, pageable);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<ContactSummary> content = new ArrayList<>(Math.min(rows.size(), pageable.getPageSize()));
+        for (Tuple row : hasNext ? rows.subList(0, pageable.getPageSize()) : rows) {
+            content.add(new ContactSummary(row));
         }
-        String trimmed = value.trim();
-        return trimmed.isEmpty() ? null : trimmed;
+        return new SliceImpl<>(content, pageable, hasNext);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public int importContacts(InputStream inputStream) {
-        log.info("Starting CSV import");
+        return importContacts(inputStream, ContactImportFormat.CSV, ContactImportProgress.NONE, ImportCheckpoint.NONE);
+    }
 
-        try (BufferedReader reader =
-                     new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int importContacts(InputStream inputStream, ContactImportProgress progress) {
+        return importContacts(inputStream, ContactImportFormat.CSV, progress, ImportCheckpoint.NONE);
+    }
 
-            String headerLine = reader.readLine();
-            if (headerLine == null || headerLine.isBlank()) {
-                log.error("CSV import failed: empty file or missing header");
-                throw new ContactImportException("CSV is empty or missing the header row.");
-            }
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int importContacts(InputStream inputStream, ContactImportFormat format,
+                              ContactImportProgress progress, ImportCheckpoint checkpoint) {
+        long startedAt = System.nanoTime();
 
-            headerLine = headerLine.replace("\uFEFF", "");
-            List<String> headerCols = parseCsvLine(headerLine);
+        try (RecordReader reader = format.open(inputStream, importDelimiter)) {
 
-            Map<String, Integer> headerIndex = new HashMap<>();
-            for (int i = 0; i < headerCols.size(); i++) {
-                String raw = headerCols.get(i);
-                if (raw == null) continue;
-                String normalized = raw.trim().toLowerCase(Locale.ROOT);
-                if (!normalized.isEmpty()) {
-                    headerIndex.put(normalized, i);
-                }
+            ContactCsv.ColumnPlan plan = readHeader(reader);
+
+            int partitions = checkpoint.begin(importParallelism);
+            log.info("Starting {} import (chunk size {}, {} writer(s))", format, importChunkSize, partitions);
+            if (partitions > 1) {
+                return importPartitioned(reader, plan, progress, checkpoint, partitions, startedAt);
             }
 
-            if (!hasAnyHeader(headerIndex, "email", "e-mail")) {
-                throw new ContactImportException(
-                        "CSV header must contain an 'email' column (exact name: email)."
-                );
+            long skip = checkpoint.committedRows(0);
+            if (skip > 0) {
+                log.info("Resuming CSV import after {} committed rows", skip);
             }
 
             int count = 0;
-            String line;
+            List<String[]> chunk = new ArrayList<>(importChunkSize);
 
-            while ((line = reader.readLine()) != null) {
-                if (line.isBlank()) {
+            while (reader.next()) {
+                if (reader.isBlank()) {
                     continue;
                 }
 
-                List<String> cols = parseCsvLine(line);
-
-                String email = getColumn(headerIndex, cols, "email", "e-mail");
-                if (email == null || email.isBlank()) {
+                String email = plan.readEmail(reader);
+                if (email == null || email.isEmpty()) {
+                    progress.rowRejected();
                     continue;
                 }
-                email = email.trim();
-
-                Contact contact = contactRepository
-                        .findByEmailIgnoreCase(email)
-                        .orElseGet(Contact::new);
-
-                contact.setEmail(email);
-                contact.setTitle(getColumn(headerIndex, cols, "title"));
-                contact.setFirstName(getColumn(headerIndex, cols, "firstname", "first_name", "first name"));
-                contact.setLastName(getColumn(headerIndex, cols, "lastname", "last_name", "last name"));
-                contact.setGender(getColumn(headerIndex, cols, "gender"));
-                contact.setPhone1(getColumn(headerIndex, cols, "phone1", "phone_1", "phone"));
-                contact.setPhone2(getColumn(headerIndex, cols, "phone2", "phone_2", "mobile", "mobile_phone"));
-                contact.setInstitution(getColumn(headerIndex, cols, "institution"));
-                contact.setFaculty(getColumn(headerIndex, cols, "faculty"));
-                contact.setStudyDomain(getColumn(headerIndex, cols, "studydomain", "study_domain", "study domain"));
-                contact.setPersGroup(getColumn(headerIndex, cols, "persgroup", "pers_group", "personal_group", "personal group"));
-                contact.setFunction(getColumn(headerIndex, cols, "function", "jobfunction", "job_function", "job function"));
-                contact.setCountry(getColumn(headerIndex, cols, "country"));
-
-                if (hasHeader(headerIndex, "coilexp", "coil_exp", "coil experience")) {
-                    Boolean b = parseBooleanNullable(getColumn(headerIndex, cols, "coilexp", "coil_exp", "coil experience"));
-                    if (b != null) contact.setCoilExp(b);
-                }
-
-                if (hasHeader(headerIndex, "mobilityfin", "mobility_fin", "mobility financing")) {
-                    Boolean b = parseBooleanNullable(getColumn(headerIndex, cols, "mobilityfin", "mobility_fin", "mobility financing"));
-                    if (b != null) contact.setMobilityFin(b);
+                if (skip > 0) {
+                    skip--;
+                    progress.rowsSkipped(1);
+                    continue;
                 }
 
-                if (hasHeader(headerIndex, "contactedbyingenium", "contacted_by_ingenium", "contacted by ingenium", "contactedbyingenium")) {
-                    Boolean b = parseBooleanNullable(getColumn(headerIndex, cols,
-                            "contactedbyingenium", "contacted_by_ingenium", "contacted by ingenium"));
-                    if (b != null) contact.setContactedByIngenium(b);
+                chunk.add(plan.read(reader));
+                if (chunk.size() >= importChunkSize) {
+                    count += commitChunk(plan, chunk, checkpoint);
+                    progress.rowsImported(chunk.size());
+                    chunk.clear();
                 }
+            }
 
-                contactRepository.save(contact);
-                count++;
+            if (!chunk.isEmpty()) {
+                count += commitChunk(plan, chunk, checkpoint);
+                progress.rowsImported(chunk.size());
             }
 
-            log.info("CSV import completed successfully. Imported {} contacts", count);
+            logImportCompleted(count, startedAt);
             return count;
 
         } catch (IOException e) {
             log.error("CSV import failed: IO error reading file", e);
-            throw new ContactImportException("Failed to read CSV file", e);
+            throw new ContactImportException("Failed to read the import file", e);
         }
     }
 
-    private boolean hasAnyHeader(Map<String, Integer> headerIndex, String... names) {
-        for (String name : names) {
-            if (headerIndex.containsKey(name.toLowerCase(Locale.ROOT))) {
-                return true;
+    @Override
+    @Transactional(readOnly = true)
+    public ContactImportPreview previewImport(InputStream inputStream, ContactImportFormat format,
+                                              ContactImportProgress progress, Writer rejects) {
+        log.info("Starting {} dry run (chunk size {}, {} validator(s))", format, importChunkSize, validationThreads);
+        long startedAt = System.nanoTime();
+
+        try (RecordReader reader = format.open(inputStream, importDelimiter)) {
+
+            ContactCsv.ColumnPlan plan = readHeader(reader);
+
+            try (DryRunImport dryRun = new DryRunImport(plan, contactRepository, entityManager, validator,
+                    progress, rejects, validationThreads, importChunkSize)) {
+                while (reader.next()) {
+                    if (!reader.isBlank()) {
+                        dryRun.add(reader.recordLine(), plan.read(reader));
+                    }
+                }
+                ContactImportPreview preview = dryRun.finish();
+
+                log.info("CSV dry run completed in {} ms: {} inserts, {} updates, {} unchanged, {} duplicates, {} rejected",
+                        (System.nanoTime() - startedAt) / 1_000_000, preview.getInserts(), preview.getUpdates(),
+                        preview.getUnchanged(), preview.getDuplicates(), preview.getRejected());
+                return preview;
             }
+
+        } catch (IOException e) {
+            log.error("CSV dry run failed: IO error", e);
+            throw new ContactImportException("Failed to read the import file", e);
         }
-        return false;
     }
 
-    private String getColumn(Map<String, Integer> headerIndex,
-                             List<String> cols,
-                             String... possibleHeaders) {
-        for (String candidate : possibleHeaders) {
-            Integer idx = headerIndex.get(candidate.toLowerCase(Locale.ROOT));
-            if (idx != null && idx < cols.size()) {
-                return unquote(cols.get(idx));
-            }
+    private ContactCsv.ColumnPlan readHeader(RecordReader reader) throws IOException {
+        if (!reader.next() || reader.isBlank()) {
+            log.error("CSV import failed: empty file or missing header");
+            throw new ContactImportException("The file is empty or missing the header row.");
         }
-        return null;
-    }
 
-    private boolean parseBoolean(String value) {
-        if (value == null) return false;
-        String v = value.trim().toLowerCase(Locale.ROOT);
-        return v.equals("true") || v.equals("yes") || v.equals("1") || v.equals("y");
+        ContactCsv.ColumnPlan plan = ContactCsv.ColumnPlan.compile(ContactCsv.headerIndex(reader));
+        if (!plan.has(ContactCsv.Field.EMAIL)) {
+            throw new ContactImportException(
+                    "The header row must contain an 'email' column (exact name: email)."
+            );
+        }
+        return plan;
     }
 
-    private boolean hasHeader(Map<String, Integer> headerIndex, String... names) {
-        return hasAnyHeader(headerIndex, names);
+    /** Writes one chunk and advances the checkpoint in a transaction of their own. */
+    private int commitChunk(ContactCsv.ColumnPlan plan, List<String[]> chunk, ImportCheckpoint checkpoint) {
+        return chunkTransaction.execute(status -> {
+            int written = importWriter.writeChunk(plan, chunk);
+            checkpoint.advance(0, chunk.size());
+            return written;
+        });
     }
 
-    private Boolean parseBooleanNullable(String value) {
-        if (value == null) return null;
-        String v = value.trim().toLowerCase(Locale.ROOT);
-        if (v.isEmpty()) return null;
-        if (v.equals("true") || v.equals("yes") || v.equals("y") || v.equals("1")) return Boolean.TRUE;
-        if (v.equals("false") || v.equals("no") || v.equals("n") || v.equals("0")) return Boolean.FALSE;
-        return null;
-    }
+    /**
+     * Parses on the calling thread and writes on {@code partitions} workers,
+     * each committing its own chunks (see {@link PartitionedImport}).
+     */
+    private int importPartitioned(RecordReader reader, ContactCsv.ColumnPlan plan, ContactImportProgress progress,
+                                  ImportCheckpoint checkpoint, int partitions, long startedAt) throws IOException {
+        try (PartitionedImport partitioned = new PartitionedImport(
+                importWriter, plan, chunkTransaction, progress, checkpoint, partitions, importChunkSize)) {
+
+            while (reader.next()) {
+                if (reader.isBlank()) {
+                    continue;
+                }
 
-    private java.util.List<String> parseCsvLine(String line) {
-        java.util.List<String> result = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        boolean inQuotes = false;
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            if (c == '"') {
-                if (inQuotes && i + 1 < line.length() && line.charAt(i + 1) == '"') {
-                    sb.append('"');
-                    i++;
-                } else {
-                    inQuotes = !inQuotes;
+                String email = plan.readEmail(reader);
+                if (email == null || email.isEmpty()) {
+                    progress.rowRejected();
+                    continue;
+                }
+                if (!partitioned.skip(email)) {
+                    partitioned.add(plan.read(reader));
                 }
-            } else if (c == ',' && !inQuotes) {
-                result.add(sb.toString());
-                sb.setLength(0);
-            } else {
-                sb.append(c);
             }
+
+            int count = partitioned.finish();
+            logImportCompleted(count, startedAt);
+            return count;
         }
-        result.add(sb.toString());
-        return result;
     }
 
-    private String unquote(String value) {
-        if (value == null) return null;
-        String trimmed = value.trim();
-        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
-            trimmed = trimmed.substring(1, trimmed.length() - 1);
-        }
-        return trimmed.replace("\"\"", "\"");
+    private void logImportCompleted(int count, long startedAt) {
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        log.info("CSV import completed successfully. Imported {} contacts in {} ms ({} rows/sec)",
+                count, elapsedMillis, count * 1000L / elapsedMillis);
     }
-}
\ No newline at end of file
+}
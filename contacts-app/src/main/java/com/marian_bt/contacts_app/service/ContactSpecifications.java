@@ -0,0 +1,155 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the search query from {@link ContactSearchCriteria}, emitting only the
+ * predicates whose criterion is set. Each filter combination therefore gets its
+ * own query shape (cached by Hibernate's criteria plan cache) instead of one
+ * generic plan that evaluates every "IS NULL OR" branch per row.
+ * <p>
+ * Text criteria match as a case-insensitive substring by default. A trailing
+ * {@code *} turns the criterion into a prefix match ({@code smi*}) and a value
+ * in double quotes into an exact match ({@code "Smith"}); both can use an index
+ * on the lower-cased column.
+ */
+public final class ContactSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ContactSpecifications() {
+    }
+
+    /**
+     * @param candidateIds ids the search index narrowed the result to, or
+     *                     {@code null} when the index does not restrict the query
+     */
+    public static Specification<Contact> matching(ContactSearchCriteria criteria, Collection<Long> candidateIds) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            text(predicates, root, cb, "title",       criteria.getTitle());
+            text(predicates, root, cb, "firstName",   criteria.getFirstName());
+            text(predicates, root, cb, "lastName",    criteria.getLastName());
+            text(predicates, root, cb, "email",       criteria.getEmail());
+            text(predicates, root, cb, "institution", criteria.getInstitution());
+            text(predicates, root, cb, "faculty",     criteria.getFaculty());
+            text(predicates, root, cb, "studyDomain", criteria.getStudyDomain());
+            text(predicates, root, cb, "persGroup",   criteria.getPersGroup());
+            text(predicates, root, cb, "function",    criteria.getFunction());
+            text(predicates, root, cb, "country",     criteria.getCountry());
+            text(predicates, root, cb, "interest",    criteria.getInterest());
+            text(predicates, root, cb, "comments",    criteria.getPastEvent());
+            text(predicates, root, cb, "comments",    criteria.getComments());
+
+            // gender is stored lower-cased and chosen from a fixed list
+            if (criteria.getGender() != null) {
+                predicates.add(cb.equal(root.get("gender"), criteria.getGender().toLowerCase(Locale.ROOT)));
+            }
+
+            equal(predicates, root, cb, "contactedByIngenium", criteria.getContactedByIngenium());
+            equal(predicates, root, cb, "coilExp",             criteria.getCoilExp());
+            equal(predicates, root, cb, "mobilityFin",         criteria.getMobilityFin());
+
+            range(predicates, root, cb, "createdAt", criteria.getCreatedAfter(), criteria.getCreatedBefore());
+            range(predicates, root, cb, "updatedAt", criteria.getUpdatedAfter(), criteria.getUpdatedBefore());
+
+            if (candidateIds != null) {
+                predicates.add(root.get("id").in(candidateIds));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Keyset predicate selecting the contacts that come after {@code cursor} in
+     * the default ordering: lower(lastName), lower(firstName), id.
+     */
+    public static Specification<Contact> after(ContactCursor cursor) {
+        return (root, query, cb) -> {
+            Expression<String> lastName = cb.lower(root.get("lastName"));
+            Expression<String> firstName = cb.lower(root.get("firstName"));
+            Expression<String> cursorLastName = cb.lower(cb.literal(cursor.getLastName()));
+            Expression<String> cursorFirstName = cb.lower(cb.literal(cursor.getFirstName()));
+
+            return cb.or(
+                    cb.greaterThan(lastName, cursorLastName),
+                    cb.and(cb.equal(lastName, cursorLastName),
+                            cb.greaterThan(firstName, cursorFirstName)),
+                    cb.and(cb.equal(lastName, cursorLastName),
+                            cb.equal(firstName, cursorFirstName),
+                            cb.greaterThan(root.get("id"), cursor.getId()))
+            );
+        };
+    }
+
+    private static void text(List<Predicate> predicates, Root<Contact> root, CriteriaBuilder cb,
+                             String attribute, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String term = value.trim().toLowerCase(Locale.ROOT);
+        Expression<String> column = cb.lower(root.get(attribute));
+
+        if (term.length() >= 2 && term.startsWith("\"") && term.endsWith("\"")) {
+            predicates.add(cb.equal(column, term.substring(1, term.length() - 1)));
+        } else if (term.length() >= 2 && term.endsWith("*")) {
+            predicates.add(cb.like(column, escapeLike(term.substring(0, term.length() - 1)) + "%", LIKE_ESCAPE));
+        } else {
+            predicates.add(cb.like(column, "%" + escapeLike(term) + "%", LIKE_ESCAPE));
+        }
+    }
+
+    /**
+     * Strips the exact-match quotes or prefix star from a text criterion.
+     */
+    static String plainTerm(String value) {
+        if (value == null) {
+            return null;
+        }
+        String term = value.trim();
+        if (term.length() >= 2 && term.startsWith("\"") && term.endsWith("\"")) {
+            return term.substring(1, term.length() - 1);
+        }
+        if (term.length() >= 2 && term.endsWith("*")) {
+            return term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+
+    private static void equal(List<Predicate> predicates, Root<Contact> root, CriteriaBuilder cb,
+                              String attribute, Boolean value) {
+        if (value != null) {
+            predicates.add(cb.equal(root.get(attribute), value));
+        }
+    }
+
+    private static void range(List<Predicate> predicates, Root<Contact> root, CriteriaBuilder cb,
+                              String attribute, LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get(attribute), from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get(attribute), to));
+        }
+    }
+
+    private static String escapeLike(String term) {
+        return term
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
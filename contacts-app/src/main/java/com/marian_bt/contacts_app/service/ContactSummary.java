@@ -0,0 +1,154 @@
+package com.marian_bt.contacts_app.service;
+
+import jakarta.persistence.Tuple;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The columns of a contact shown on the list and search pages. Loaded with a
+ * scalar query, so the long text columns (address, interest, fund use,
+ * comments) are never read and nothing enters the persistence context.
+ */
+public final class ContactSummary {
+
+    /** Selected columns, in constructor order. */
+    static final List<ContactField> FIELDS = List.of(
+            ContactField.ID, ContactField.TITLE, ContactField.FIRST_NAME, ContactField.LAST_NAME,
+            ContactField.GENDER, ContactField.EMAIL, ContactField.PHONE1, ContactField.PHONE2,
+            ContactField.INSTITUTION, ContactField.FACULTY, ContactField.STUDY_DOMAIN, ContactField.PERS_GROUP,
+            ContactField.FUNCTION, ContactField.COUNTRY, ContactField.CONTACTED_BY_INGENIUM,
+            ContactField.COIL_EXP, ContactField.MOBILITY_FIN, ContactField.CREATED_AT, ContactField.CREATED_BY,
+            ContactField.UPDATED_AT, ContactField.UPDATED_BY);
+
+    private final Long id;
+    private final String title;
+    private final String firstName;
+    private final String lastName;
+    private final String gender;
+    private final String email;
+    private final String phone1;
+    private final String phone2;
+    private final String institution;
+    private final String faculty;
+    private final String studyDomain;
+    private final String persGroup;
+    private final String function;
+    private final String country;
+    private final boolean contactedByIngenium;
+    private final boolean coilExp;
+    private final boolean mobilityFin;
+    private final LocalDateTime createdAt;
+    private final String createdBy;
+    private final LocalDateTime updatedAt;
+    private final String updatedBy;
+
+    /** Reads a row selected with {@link #FIELDS}. */
+    ContactSummary(Tuple row) {
+        this.id = row.get(0, Long.class);
+        this.title = row.get(1, String.class);
+        this.firstName = row.get(2, String.class);
+        this.lastName = row.get(3, String.class);
+        this.gender = row.get(4, String.class);
+        this.email = row.get(5, String.class);
+        this.phone1 = row.get(6, String.class);
+        this.phone2 = row.get(7, String.class);
+        this.institution = row.get(8, String.class);
+        this.faculty = row.get(9, String.class);
+        this.studyDomain = row.get(10, String.class);
+        this.persGroup = row.get(11, String.class);
+        this.function = row.get(12, String.class);
+        this.country = row.get(13, String.class);
+        this.contactedByIngenium = row.get(14, Boolean.class);
+        this.coilExp = row.get(15, Boolean.class);
+        this.mobilityFin = row.get(16, Boolean.class);
+        this.createdAt = row.get(17, LocalDateTime.class);
+        this.createdBy = row.get(18, String.class);
+        this.updatedAt = row.get(19, LocalDateTime.class);
+        this.updatedBy = row.get(20, String.class);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone1() {
+        return phone1;
+    }
+
+    public String getPhone2() {
+        return phone2;
+    }
+
+    public String getInstitution() {
+        return institution;
+    }
+
+    public String getFaculty() {
+        return faculty;
+    }
+
+    public String getStudyDomain() {
+        return studyDomain;
+    }
+
+    public String getPersGroup() {
+        return persGroup;
+    }
+
+    public String getFunction() {
+        return function;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public boolean isContactedByIngenium() {
+        return contactedByIngenium;
+    }
+
+    public boolean isCoilExp() {
+        return coilExp;
+    }
+
+    public boolean isMobilityFin() {
+        return mobilityFin;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public String getUpdatedBy() {
+        return updatedBy;
+    }
+}
@@ -0,0 +1,94 @@
+package com.marian_bt.contacts_app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * CSV export: id unquoted, every other value quoted (empty string for null),
+ * timestamps as "yyyy-MM-dd HH:mm". Values are escaped straight into the
+ * buffered writer instead of being copied into a quoted string first.
+ */
+final class CsvExportWriter extends ContactExportWriter {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final Writer out;
+
+    CsvExportWriter(OutputStream out) {
+        this.out = utf8(out);
+    }
+
+    @Override
+    void writeHeader() throws IOException {
+        for (Column column : Column.VALUES) {
+            if (column.ordinal() > 0) {
+                out.write(',');
+            }
+            out.write(column.header);
+        }
+        out.write('\n');
+    }
+
+    @Override
+    void startRow() {
+    }
+
+    @Override
+    void writeNumber(Column column, Long value) throws IOException {
+        separator(column);
+        if (value != null) {
+            out.write(Long.toString(value));
+        }
+    }
+
+    @Override
+    void writeText(Column column, String value) throws IOException {
+        separator(column);
+        out.write('"');
+        if (value != null) {
+            int start = 0;
+            for (int quote = value.indexOf('"'); quote >= 0; quote = value.indexOf('"', start)) {
+                out.write(value, start, quote + 1 - start);
+                out.write('"');
+                start = quote + 1;
+            }
+            out.write(value, start, value.length() - start);
+        }
+        out.write('"');
+    }
+
+    @Override
+    void writeFlag(Column column, boolean value) throws IOException {
+        separator(column);
+        out.write(value ? "\"true\"" : "\"false\"");
+    }
+
+    @Override
+    void writeTimestamp(Column column, LocalDateTime value) throws IOException {
+        separator(column);
+        out.write('"');
+        if (value != null) {
+            TIMESTAMP.formatTo(value, out);
+        }
+        out.write('"');
+    }
+
+    @Override
+    void endRow() throws IOException {
+        out.write('\n');
+    }
+
+    private void separator(Column column) throws IOException {
+        if (column.ordinal() > 0) {
+            out.write(',');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
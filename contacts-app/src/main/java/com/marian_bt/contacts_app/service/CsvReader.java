@@ -0,0 +1,227 @@
+package com.marian_bt.contacts_app.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 reader: records are read one at a time straight from the
+ * character stream, so quoted fields may contain delimiters, escaped quotes
+ * ({@code ""}) and line breaks. CRLF, LF and CR all end a record, and a
+ * leading byte order mark is skipped.
+ * <p>
+ * Fields of the current record live in one reusable buffer; Strings are only
+ * created by {@link #value(int)}. A record longer than the configured limit
+ * (typically an unterminated quote) fails the read instead of buffering the
+ * rest of the file, and so does a quoted field still open at the end of input.
+ * <p>
+ * Lenient where spreadsheets are sloppy: whitespace before an opening quote is
+ * ignored, and a quote inside an unquoted field, or after a closing quote, is
+ * kept as a literal character.
+ */
+final class CsvReader implements RecordReader {
+
+    static final int DEFAULT_MAX_RECORD_CHARS = 1 << 20;
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final int maxRecordChars;
+
+    private final char[] input = new char[8192];
+    private int inputPos;
+    private int inputLimit;
+
+    private char[] buffer = new char[256];
+    private int length;
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private int size;
+
+    private long line = 1;
+    private long recordLine;
+    private boolean started;
+
+    CsvReader(Reader reader, char delimiter) {
+        this(reader, delimiter, DEFAULT_MAX_RECORD_CHARS);
+    }
+
+    CsvReader(Reader reader, char delimiter, int maxRecordChars) {
+        if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("Invalid CSV delimiter: " + delimiter);
+        }
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * Reads the next record. Returns false at the end of the input.
+     *
+     * @throws ContactImportException if a record exceeds the length limit or
+     *         the input ends inside a quoted field
+     */
+    @Override
+    public boolean next() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == '\uFEFF') {
+                inputPos++;
+            }
+        }
+
+        int c = read();
+        if (c == EOF) {
+            size = 0;
+            return false;
+        }
+
+        size = 0;
+        length = 0;
+        recordLine = line;
+        int start = 0;
+
+        while (true) {
+            // start of a field; leading blanks are dropped if a quote follows
+            int blanks = 0;
+            while ((c == ' ' || c == '\t') && c != delimiter) {
+                append((char) c);
+                blanks++;
+                c = read();
+            }
+
+            if (c == '"') {
+                length -= blanks;
+                c = readQuoted();
+            }
+
+            while (c != EOF && c != delimiter && c != '\n' && c != '\r') {
+                append((char) c);
+                c = read();
+            }
+
+            endField(start, length);
+            start = length;
+
+            if (c == delimiter) {
+                c = read();
+                continue;
+            }
+            if (c == '\r' && peek() == '\n') {
+                read();
+            }
+            if (c == '\r' || c == '\n') {
+                line++;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Reads a quoted field body after its opening quote; returns the char following the closing quote.
+     * Reaching the end of input first fails the record rather than returning a silently truncated one.
+     */
+    private int readQuoted() throws IOException {
+        int c;
+        while ((c = read()) != EOF) {
+            if (c == '"') {
+                if (peek() != '"') {
+                    return read();
+                }
+                read();
+            } else if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                line++;
+            }
+            append((char) c);
+        }
+        throw new ContactImportException("CSV record starting on line " + recordLine +
+                " ends inside a quoted field (unbalanced quote?)");
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** True for an empty line (a single empty field). */
+    @Override
+    public boolean isBlank() {
+        if (size != 1) {
+            return false;
+        }
+        for (int i = starts[0]; i < ends[0]; i++) {
+            if (buffer[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long recordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public String value(int col) {
+        int start = starts[col];
+        int end = ends[col];
+        while (start < end && buffer[start] <= ' ') start++;
+        while (end > start && buffer[end - 1] <= ' ') end--;
+        return new String(buffer, start, end - start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void append(char c) {
+        if (length == buffer.length) {
+            if (length >= maxRecordChars) {
+                throw new ContactImportException("CSV record starting on line " + recordLine +
+                        " is longer than " + maxRecordChars + " characters (unbalanced quote?)");
+            }
+            buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxRecordChars));
+        }
+        buffer[length++] = c;
+    }
+
+    private void endField(int start, int end) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    private int read() throws IOException {
+        if (inputPos == inputLimit && !fill()) {
+            return EOF;
+        }
+        return input[inputPos++];
+    }
+
+    private int peek() throws IOException {
+        if (inputPos == inputLimit && !fill()) {
+            return EOF;
+        }
+        return input[inputPos];
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = reader.read(input, 0, input.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        inputPos = 0;
+        inputLimit = n;
+        return true;
+    }
+}
@@ -0,0 +1,232 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Classifies the rows of an import without writing anything. Per chunk, the
+ * rows are validated on worker threads while the calling thread looks up the
+ * stored contacts for their emails with one IN query; each row is then counted
+ * as insert, update, unchanged, duplicate or rejected (see
+ * {@link ContactImportPreview}).
+ * <p>
+ * Must run inside a (read-only) transaction on the calling thread. The emails
+ * seen so far are kept to recognise duplicates, so memory grows with the
+ * number of distinct emails in the file, not with the row data.
+ */
+final class DryRunImport implements AutoCloseable {
+
+    private final ContactCsv.ColumnPlan plan;
+    private final ContactRepository contactRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ContactImportProgress progress;
+    private final Writer rejects;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ExecutorService validators;
+
+    private final List<Row> chunk = new ArrayList<>();
+    private final Set<String> seenEmails = new HashSet<>();
+    private final ContactImportPreview preview = new ContactImportPreview();
+
+    private record Row(long line, String[] values) {
+    }
+
+    /**
+     * @param rejects receives the rejected rows as CSV, or null to only count them
+     */
+    DryRunImport(ContactCsv.ColumnPlan plan,
+                 ContactRepository contactRepository,
+                 EntityManager entityManager,
+                 Validator validator,
+                 ContactImportProgress progress,
+                 Writer rejects,
+                 int parallelism,
+                 int chunkSize) throws IOException {
+        this.plan = plan;
+        this.contactRepository = contactRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.progress = progress;
+        this.rejects = rejects;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.validators = parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism, runnable -> {
+                    Thread thread = new Thread(runnable, "contact-import-validator-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+
+        if (rejects != null) {
+            // same column names as the import accepts, so a fixed file can be uploaded again
+            rejects.write("line,errors");
+            for (ContactCsv.Field field : ContactCsv.Field.values()) {
+                rejects.write(',');
+                rejects.write(field.attribute);
+            }
+            rejects.write('\n');
+        }
+    }
+
+    void add(long line, String[] values) throws IOException {
+        chunk.add(new Row(line, values));
+        if (chunk.size() >= chunkSize) {
+            check();
+        }
+    }
+
+    /** Classifies the remaining rows and returns the totals. */
+    ContactImportPreview finish() throws IOException {
+        if (!chunk.isEmpty()) {
+            check();
+        }
+        if (rejects != null) {
+            rejects.flush();
+        }
+        return preview;
+    }
+
+    @Override
+    public void close() {
+        if (validators != null) {
+            validators.shutdownNow();
+        }
+    }
+
+    private void check() throws IOException {
+        String[] errors = new String[chunk.size()];
+        List<Future<?>> validations = new ArrayList<>();
+        int sliceSize = (chunk.size() + parallelism - 1) / parallelism;
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(chunk.size(), from + sliceSize);
+            Runnable slice = () -> {
+                for (int i = start; i < end; i++) {
+                    errors[i] = validate(chunk.get(i).values());
+                }
+            };
+            if (validators != null) {
+                validations.add(validators.submit(slice));
+            } else {
+                slice.run();
+            }
+        }
+
+        // look the emails up while the workers validate
+        Set<String> emails = new HashSet<>();
+        for (Row row : chunk) {
+            String email = ContactCsv.email(row.values());
+            if (email != null && !email.isEmpty()) {
+                emails.add(email.toLowerCase(Locale.ROOT));
+            }
+        }
+        Map<String, Contact> stored = new HashMap<>();
+        if (!emails.isEmpty()) {
+            for (Contact contact : contactRepository.findByLowerCaseEmailIn(emails)) {
+                stored.put(contact.getEmail().toLowerCase(Locale.ROOT), contact);
+            }
+        }
+
+        try {
+            for (Future<?> validation : validations) {
+                validation.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContactImportException("CSV import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new ContactImportException("Failed to validate contacts: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        int accepted = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            Row row = chunk.get(i);
+            if (errors[i] != null) {
+                reject(row, errors[i]);
+                continue;
+            }
+            accepted++;
+            String key = ContactCsv.email(row.values()).toLowerCase(Locale.ROOT);
+            Contact existing = stored.get(key);
+            if (!seenEmails.add(key)) {
+                preview.addDuplicate();
+            } else if (existing == null) {
+                preview.addInsert();
+            } else if (plan.isUnchanged(existing, row.values())) {
+                preview.addUnchanged();
+            } else {
+                preview.addUpdate();
+            }
+        }
+        progress.rowsImported(accepted);
+
+        chunk.clear();
+        entityManager.clear();
+    }
+
+    /** The validation errors of the row as one message, or null when it would be imported. */
+    private String validate(String[] values) {
+        String email = ContactCsv.email(values);
+        if (email == null || email.isEmpty()) {
+            return "email: must not be blank";
+        }
+
+        Contact contact = new Contact();
+        contact.setEmail(email);
+        plan.apply(contact, values);
+        Set<ConstraintViolation<Contact>> violations = validator.validate(contact);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private void reject(Row row, String errors) throws IOException {
+        preview.addRejected();
+        progress.rowRejected();
+        if (rejects == null) {
+            return;
+        }
+        rejects.write(Long.toString(row.line()));
+        rejects.write(',');
+        rejects.write(quote(errors));
+        for (String value : row.values()) {
+            rejects.write(',');
+            rejects.write(quote(value));
+        }
+        rejects.write('\n');
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "\"\"";
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
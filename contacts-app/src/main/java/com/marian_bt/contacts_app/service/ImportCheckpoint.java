@@ -0,0 +1,40 @@
+package com.marian_bt.contacts_app.service;
+
+/**
+ * Where an import stands: the number of rows committed per partition (writer).
+ * A resumed import skips that many rows of each partition before writing again.
+ */
+public interface ImportCheckpoint {
+
+    /** No persisted state: every import starts from the first row. */
+    ImportCheckpoint NONE = new ImportCheckpoint() {
+        @Override
+        public int begin(int partitions) {
+            return partitions;
+        }
+
+        @Override
+        public long committedRows(int partition) {
+            return 0;
+        }
+
+        @Override
+        public void advance(int partition, int rows) {
+        }
+    };
+
+    /**
+     * Called once before the first row. Returns the number of partitions to
+     * use: {@code partitions} for a new import, the original count on resume
+     * (rows are assigned to partitions by email hash, so it must not change).
+     */
+    int begin(int partitions);
+
+    long committedRows(int partition);
+
+    /**
+     * Records {@code rows} more committed rows for the partition. Must run in
+     * the transaction that writes them.
+     */
+    void advance(int partition, int rows);
+}
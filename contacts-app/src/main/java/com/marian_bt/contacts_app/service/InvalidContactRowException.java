@@ -0,0 +1,12 @@
+package com.marian_bt.contacts_app.service;
+
+/**
+ * A row that fails bean validation during an import. Running the import again
+ * would stop at the same row, so such a failure is not resumable; a dry run
+ * lists every invalid row with its line number.
+ */
+public class InvalidContactRowException extends ContactImportException {
+    public InvalidContactRowException(String email, String errors) {
+        super("Invalid row for " + email + " (" + errors + "). Run a dry run to list all invalid rows.");
+    }
+}
@@ -0,0 +1,114 @@
+package com.marian_bt.contacts_app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Newline-delimited JSON export: one object per contact, keyed by the column
+ * names, with numbers and booleans unquoted, null for missing values and
+ * ISO-8601 timestamps.
+ */
+final class NdjsonExportWriter extends ContactExportWriter {
+
+    private static final String[] KEYS = new String[Column.VALUES.length];
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    static {
+        for (Column column : Column.VALUES) {
+            KEYS[column.ordinal()] = "\"" + column.header + "\":";
+        }
+    }
+
+    private final Writer out;
+
+    NdjsonExportWriter(OutputStream out) {
+        this.out = utf8(out);
+    }
+
+    @Override
+    void writeHeader() {
+        // every object carries its keys
+    }
+
+    @Override
+    void startRow() throws IOException {
+        out.write('{');
+    }
+
+    @Override
+    void writeNumber(Column column, Long value) throws IOException {
+        key(column);
+        out.write(value != null ? Long.toString(value) : "null");
+    }
+
+    @Override
+    void writeText(Column column, String value) throws IOException {
+        key(column);
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.write(value, start, i - start);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    out.write("\\u00");
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xF]);
+                }
+            }
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    @Override
+    void writeFlag(Column column, boolean value) throws IOException {
+        key(column);
+        out.write(value ? "true" : "false");
+    }
+
+    @Override
+    void writeTimestamp(Column column, LocalDateTime value) throws IOException {
+        key(column);
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(value, out);
+        out.write('"');
+    }
+
+    @Override
+    void endRow() throws IOException {
+        out.write("}\n");
+    }
+
+    private void key(Column column) throws IOException {
+        if (column.ordinal() > 0) {
+            out.write(',');
+        }
+        out.write(KEYS[column.ordinal()]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
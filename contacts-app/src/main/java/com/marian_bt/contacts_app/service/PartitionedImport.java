@@ -0,0 +1,190 @@
+package com.marian_bt.contacts_app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fans parsed rows out to worker threads by hash(lower(email)). All rows for
+ * one email go to the same worker, in file order, so two workers never upsert
+ * the same email. Each worker commits its chunks in a transaction of its own,
+ * which means a failed import keeps the chunks committed before the failure.
+ * The checkpoint counts committed rows per partition; since a partition's rows
+ * always arrive in file order, a resumed run skips exactly those rows.
+ * <p>
+ * Memory is bounded: every partition buffers at most one chunk being filled
+ * plus {@link #QUEUED_CHUNKS} waiting for its worker; the parser blocks beyond that.
+ */
+final class PartitionedImport implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedImport.class);
+
+    private static final int QUEUED_CHUNKS = 2;
+    private static final List<String[]> END = List.of();
+
+    private final ContactImportWriter writer;
+    private final ContactCsv.ColumnPlan plan;
+    private final TransactionTemplate chunkTransaction;
+    private final ContactImportProgress progress;
+    private final ImportCheckpoint checkpoint;
+    private final int chunkSize;
+    private final long[] skipped;
+
+    private final List<List<String[]>> pending = new ArrayList<>();
+    private final List<BlockingQueue<List<String[]>>> queues = new ArrayList<>();
+    private final ExecutorService workers;
+    private final AtomicInteger imported = new AtomicInteger();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    PartitionedImport(ContactImportWriter writer,
+                      ContactCsv.ColumnPlan plan,
+                      TransactionTemplate chunkTransaction,
+                      ContactImportProgress progress,
+                      ImportCheckpoint checkpoint,
+                      int parallelism,
+                      int chunkSize) {
+        this.writer = writer;
+        this.plan = plan;
+        this.chunkTransaction = chunkTransaction;
+        this.progress = progress;
+        this.checkpoint = checkpoint;
+        this.chunkSize = chunkSize;
+        this.skipped = new long[parallelism];
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "contact-import-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // workers audit their writes as the user who started the import
+        this.workers = new DelegatingSecurityContextExecutorService(pool);
+
+        for (int i = 0; i < parallelism; i++) {
+            pending.add(new ArrayList<>(chunkSize));
+            BlockingQueue<List<String[]>> queue = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+            queues.add(queue);
+            int partition = i;
+            workers.execute(() -> drain(partition, queue));
+        }
+    }
+
+    /** True when an earlier run already committed this row, which is then not to be added. */
+    boolean skip(String email) {
+        int partition = partitionOf(email);
+        if (skipped[partition] < checkpoint.committedRows(partition)) {
+            skipped[partition]++;
+            progress.rowsSkipped(1);
+            return true;
+        }
+        return false;
+    }
+
+    void add(String[] row) {
+        int partition = partitionOf(ContactCsv.email(row));
+        List<String[]> chunk = pending.get(partition);
+        chunk.add(row);
+        if (chunk.size() >= chunkSize) {
+            put(partition, chunk);
+            pending.set(partition, new ArrayList<>(chunkSize));
+        }
+    }
+
+    /** Hands over the remaining rows, waits for the workers and returns the number of rows written. */
+    int finish() {
+        for (int partition = 0; partition < queues.size(); partition++) {
+            List<String[]> chunk = pending.get(partition);
+            if (!chunk.isEmpty()) {
+                put(partition, chunk);
+            }
+            put(partition, END);
+        }
+
+        workers.shutdown();
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                throwIfFailed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContactImportException("CSV import was interrupted", e);
+        }
+        throwIfFailed();
+        return imported.get();
+    }
+
+    /**
+     * Stops the workers and waits for them, so a failed import has finished
+     * writing (and checkpointing) before it is reported and can be resumed.
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        try {
+            if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Import workers did not stop within a minute");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void put(int partition, List<String[]> chunk) {
+        BlockingQueue<List<String[]>> queue = queues.get(partition);
+        try {
+            while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                throwIfFailed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContactImportException("CSV import was interrupted", e);
+        }
+        throwIfFailed();
+    }
+
+    private int partitionOf(String email) {
+        return Math.floorMod(email.toLowerCase(Locale.ROOT).hashCode(), queues.size());
+    }
+
+    private void drain(int partition, BlockingQueue<List<String[]>> queue) {
+        try {
+            List<String[]> chunk;
+            while ((chunk = queue.take()) != END) {
+                List<String[]> rows = chunk;
+                Integer written = chunkTransaction.execute(status -> {
+                    int n = writer.writeChunk(plan, rows);
+                    checkpoint.advance(partition, rows.size());
+                    return n;
+                });
+                imported.addAndGet(written);
+                progress.rowsImported(written);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private void throwIfFailed() {
+        RuntimeException e = failure.get();
+        if (e instanceof ContactImportException importFailure) {
+            throw importFailure;
+        }
+        if (e != null) {
+            throw new ContactImportException("Failed to import contacts: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.marian_bt.contacts_app.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Forward-only source of tabular records, read one record at a time. The
+ * import consumes CSV ({@link CsvReader}) and XLSX ({@link XlsxReader})
+ * through this interface, so every format feeds the same pipeline.
+ */
+interface RecordReader extends Closeable {
+
+    /** Reads the next record. Returns false at the end of the input. */
+    boolean next() throws IOException;
+
+    /** Number of fields in the current record. */
+    int size();
+
+    /** True for a record without any content. */
+    boolean isBlank();
+
+    /** Line (CSV) or row number (XLSX) on which the current record starts, 1-based. */
+    long recordLine();
+
+    /** Field {@code col} of the current record, trimmed. */
+    String value(int col);
+}
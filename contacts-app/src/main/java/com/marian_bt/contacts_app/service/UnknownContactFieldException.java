@@ -0,0 +1,8 @@
+package com.marian_bt.contacts_app.service;
+
+/** A {@code fields} parameter naming an attribute that is not a {@link ContactField}. */
+public class UnknownContactFieldException extends IllegalArgumentException {
+    public UnknownContactFieldException(String name) {
+        super("Unknown contact field: '" + name + "'");
+    }
+}
@@ -0,0 +1,189 @@
+package com.marian_bt.contacts_app.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streaming XLSX export: a minimal workbook with one worksheet, written in a
+ * single pass. Text cells are inline strings rather than shared strings, so
+ * nothing has to be collected before the sheet is written; numbers and
+ * booleans are typed cells.
+ */
+final class XlsxExportWriter extends ContactExportWriter {
+
+    /** Rows per worksheet in Excel, header included. */
+    static final int MAX_ROWS = 1_048_576;
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String[] COLUMN_LETTERS = new String[Column.VALUES.length];
+
+    static {
+        for (Column column : Column.VALUES) {
+            COLUMN_LETTERS[column.ordinal()] = String.valueOf((char) ('A' + column.ordinal()));
+        }
+    }
+
+    private static final String CONTENT_TYPES = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+            <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+            <Default Extension="xml" ContentType="application/xml"/>\
+            <Override PartName="/xl/workbook.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>\
+            <Override PartName="/xl/worksheets/sheet1.xml" ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>\
+            </Types>""";
+
+    private static final String ROOT_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" Target="xl/workbook.xml"/>\
+            </Relationships>""";
+
+    private static final String WORKBOOK = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" \
+            xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">\
+            <sheets><sheet name="Contacts" sheetId="1" r:id="rId1"/></sheets></workbook>""";
+
+    private static final String WORKBOOK_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" Target="worksheets/sheet1.xml"/>\
+            </Relationships>""";
+
+    private final int maxRows;
+    private final ZipOutputStream zip;
+    private final Writer out;
+    private int row;
+    private String rowNumber;
+
+    XlsxExportWriter(OutputStream out) throws IOException {
+        this(out, MAX_ROWS);
+    }
+
+    XlsxExportWriter(OutputStream out, int maxRows) throws IOException {
+        this.maxRows = maxRows;
+        this.zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        writePart("[Content_Types].xml", CONTENT_TYPES);
+        writePart("_rels/.rels", ROOT_RELS);
+        writePart("xl/workbook.xml", WORKBOOK);
+        writePart("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+
+        zip.putNextEntry(new ZipEntry(XlsxReader.FIRST_SHEET));
+        this.out = utf8(zip);
+        this.out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+                "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+    }
+
+    private void writePart(String name, String xml) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(xml.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    @Override
+    void writeHeader() throws IOException {
+        startRow();
+        for (Column column : Column.VALUES) {
+            writeText(column, column.header);
+        }
+        endRow();
+    }
+
+    @Override
+    void startRow() throws IOException {
+        if (row == maxRows) {
+            throw new IOException("An XLSX worksheet holds at most " + maxRows + " rows; export as CSV instead.");
+        }
+        row++;
+        rowNumber = Integer.toString(row);
+        out.write("<row r=\"");
+        out.write(rowNumber);
+        out.write("\">");
+    }
+
+    @Override
+    void writeNumber(Column column, Long value) throws IOException {
+        if (value != null) {
+            startCell(column, null);
+            out.write("<v>");
+            out.write(Long.toString(value));
+            out.write("</v></c>");
+        }
+    }
+
+    @Override
+    void writeText(Column column, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        startCell(column, "inlineStr");
+        out.write("<is><t xml:space=\"preserve\">");
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean plain = c >= 0x20 ? c != '&' && c != '<' && c != '>' : c == '\t' || c == '\n' || c == '\r';
+            if (plain) {
+                continue;
+            }
+            out.write(value, start, i - start);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                default -> {
+                    // control characters are not allowed in XML 1.0
+                }
+            }
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write("</t></is></c>");
+    }
+
+    @Override
+    void writeFlag(Column column, boolean value) throws IOException {
+        startCell(column, "b");
+        out.write(value ? "<v>1</v></c>" : "<v>0</v></c>");
+    }
+
+    @Override
+    void writeTimestamp(Column column, LocalDateTime value) throws IOException {
+        if (value != null) {
+            writeText(column, TIMESTAMP.format(value));
+        }
+    }
+
+    private void startCell(Column column, String type) throws IOException {
+        out.write("<c r=\"");
+        out.write(COLUMN_LETTERS[column.ordinal()]);
+        out.write(rowNumber);
+        if (type != null) {
+            out.write("\" t=\"");
+            out.write(type);
+        }
+        out.write("\">");
+    }
+
+    @Override
+    void endRow() throws IOException {
+        out.write("</row>");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.write("</sheetData></worksheet>");
+            out.flush();
+            zip.closeEntry();
+        } finally {
+            zip.close();
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package com.marian_bt.contacts_app.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Streaming reader for the first worksheet of an XLSX workbook, without
+ * loading the workbook: the zip is read front to back and the sheet XML is
+ * pulled row by row with StAX. The first sheet is the first one listed in
+ * xl/workbook.xml, resolved through xl/_rels/workbook.xml.rels. Only the
+ * shared string table is held in memory (cells reference it by index). If the
+ * sheet comes before that table in the zip, as Excel writes it, or before the
+ * workbook says which sheet is first, the sheet XML is spilled to a temporary
+ * file first, up to a size limit.
+ * <p>
+ * Cells are returned as stored: numbers in their raw form (no number formats
+ * applied, so phone numbers stored as numbers lose leading zeros), booleans
+ * as true/false, formulas as their cached value.
+ */
+final class XlsxReader implements RecordReader {
+
+    static final String FIRST_SHEET = "xl/worksheets/sheet1.xml";
+    static final String WORKBOOK = "xl/workbook.xml";
+    static final String WORKBOOK_RELS = "xl/_rels/workbook.xml.rels";
+    static final String SHARED_STRINGS = "xl/sharedStrings.xml";
+    static final long DEFAULT_MAX_SHARED_STRING_CHARS = 1L << 26;
+    static final long DEFAULT_MAX_SPILLED_BYTES = 1L << 30;
+
+    private static final URI WORKBOOK_BASE = URI.create("/xl/");
+
+    private static final int MAX_COLUMNS = 16_384;
+    private static final XMLInputFactory XML = xmlInputFactory();
+
+    private final ZipInputStream zip;
+    private final long maxSharedStringChars;
+    private final long maxSpilledBytes;
+    private final List<String> sharedStrings = new ArrayList<>();
+    private final Map<String, Path> spilledSheets = new HashMap<>();
+    private long spilledBytes;
+    private InputStream sheetInput;
+    private XMLStreamReader sheet;
+
+    private String[] values = new String[32];
+    private int size;
+    private long recordLine;
+
+    XlsxReader(InputStream in) throws IOException {
+        this(in, DEFAULT_MAX_SHARED_STRING_CHARS, DEFAULT_MAX_SPILLED_BYTES);
+    }
+
+    XlsxReader(InputStream in, long maxSharedStringChars, long maxSpilledBytes) throws IOException {
+        this.zip = new ZipInputStream(in);
+        this.maxSharedStringChars = maxSharedStringChars;
+        this.maxSpilledBytes = maxSpilledBytes;
+        try {
+            openSheet();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void openSheet() throws IOException {
+        boolean sharedStringsRead = false;
+        String firstSheetId = null;
+        Map<String, String> relationships = null;
+        String firstSheet = null;
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String name = entry.getName();
+            if (name.equals(SHARED_STRINGS)) {
+                readSharedStrings(new KeepOpen(zip));
+                sharedStringsRead = true;
+            } else if (name.equals(WORKBOOK)) {
+                firstSheetId = readFirstSheetId(new KeepOpen(zip));
+            } else if (name.equals(WORKBOOK_RELS)) {
+                relationships = readRelationships(new KeepOpen(zip));
+            } else if (firstSheet != null ? name.equals(firstSheet) : isWorksheet(name)) {
+                if (name.equals(firstSheet) && sharedStringsRead) {
+                    sheetInput = new KeepOpen(zip);
+                    break;
+                }
+                spill(name);
+            }
+
+            if (firstSheet == null && firstSheetId != null && relationships != null) {
+                firstSheet = relationships.get(firstSheetId);
+                if (firstSheet == null) {
+                    throw new ContactImportException("The XLSX workbook names a first sheet that is not in the file.");
+                }
+                discardSpilledExcept(firstSheet);
+            }
+        }
+
+        if (sheetInput == null) {
+            // without a workbook part, fall back to the name every spreadsheet application uses
+            Path spilled = spilledSheets.get(firstSheet != null ? firstSheet : FIRST_SHEET);
+            if (spilled == null) {
+                throw new ContactImportException("The file is not an XLSX workbook with a first worksheet.");
+            }
+            sheetInput = Files.newInputStream(spilled);
+        }
+        try {
+            sheet = XML.createXMLStreamReader(sheetInput);
+        } catch (XMLStreamException e) {
+            throw new ContactImportException("Could not read the XLSX worksheet: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isWorksheet(String name) {
+        return name.startsWith("xl/worksheets/") && name.endsWith(".xml") && name.indexOf('/', 14) < 0;
+    }
+
+    /** Copies the current zip entry to a temporary file, counting it against the spill limit. */
+    private void spill(String name) throws IOException {
+        Path file = Files.createTempFile("contacts-import-", ".xml");
+        spilledSheets.put(name, file);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] chunk = new byte[8192];
+            int n;
+            while ((n = zip.read(chunk)) > 0) {
+                spilledBytes += n;
+                if (spilledBytes > maxSpilledBytes) {
+                    throw new ContactImportException("The XLSX worksheet exceeds " + maxSpilledBytes +
+                            " bytes uncompressed.");
+                }
+                out.write(chunk, 0, n);
+            }
+        }
+    }
+
+    /** Drops sheets spilled before the workbook said which one comes first. */
+    private void discardSpilledExcept(String keep) throws IOException {
+        Iterator<Map.Entry<String, Path>> it = spilledSheets.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Path> spilled = it.next();
+            if (!spilled.getKey().equals(keep)) {
+                spilledBytes -= Files.size(spilled.getValue());
+                Files.delete(spilled.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /** Relationship id of the first {@code <sheet>} in workbook.xml, which is the first tab in Excel. */
+    private static String readFirstSheetId(InputStream in) {
+        try {
+            XMLStreamReader xml = XML.createXMLStreamReader(in);
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(xml.getLocalName())) {
+                        for (int i = 0; i < xml.getAttributeCount(); i++) {
+                            String namespace = xml.getAttributeNamespace(i);
+                            if ("id".equals(xml.getAttributeLocalName(i)) && namespace != null && !namespace.isEmpty()) {
+                                return xml.getAttributeValue(i);
+                            }
+                        }
+                        throw new ContactImportException("The XLSX workbook lists a sheet without a relationship id.");
+                    }
+                }
+                throw new ContactImportException("The XLSX workbook has no sheets.");
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new ContactImportException("Could not read the XLSX workbook: " + e.getMessage(), e);
+        }
+    }
+
+    /** Maps relationship ids of workbook.xml.rels to zip entry names. */
+    private static Map<String, String> readRelationships(InputStream in) {
+        Map<String, String> relationships = new HashMap<>();
+        try {
+            XMLStreamReader xml = XML.createXMLStreamReader(in);
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(xml.getLocalName())) {
+                    String id = xml.getAttributeValue(null, "Id");
+                    String target = xml.getAttributeValue(null, "Target");
+                    String part = target != null && !"External".equals(xml.getAttributeValue(null, "TargetMode"))
+                            ? partName(target) : null;
+                    if (id != null && part != null) {
+                        relationships.put(id, part);
+                    }
+                }
+            }
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new ContactImportException("Could not read the XLSX workbook relationships: " + e.getMessage(), e);
+        }
+        return relationships;
+    }
+
+    /** Zip entry name of a relationship target, which is relative to xl/ unless it starts with a slash; null if invalid. */
+    private static String partName(String target) {
+        try {
+            String path = WORKBOOK_BASE.resolve(target).normalize().getPath();
+            return path != null && path.startsWith("/") ? path.substring(1) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Reads the table of strings that text cells point into; rich text runs are concatenated, phonetic hints skipped. */
+    private void readSharedStrings(InputStream in) {
+        long chars = 0;
+        try {
+            XMLStreamReader xml = XML.createXMLStreamReader(in);
+            StringBuilder text = null;
+            int phonetic = 0;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "si" -> text = new StringBuilder();
+                        case "rPh" -> phonetic++;
+                        case "t" -> {
+                            if (text != null && phonetic == 0) {
+                                text.append(xml.getElementText());
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if ("si".equals(xml.getLocalName()) && text != null) {
+                        chars += text.length();
+                        if (chars > maxSharedStringChars) {
+                            throw new ContactImportException("The XLSX shared strings exceed " +
+                                    maxSharedStringChars + " characters.");
+                        }
+                        sharedStrings.add(text.toString());
+                        text = null;
+                    } else if ("rPh".equals(xml.getLocalName())) {
+                        phonetic--;
+                    }
+                }
+            }
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new ContactImportException("Could not read the XLSX shared strings: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        try {
+            while (sheet.hasNext()) {
+                if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                    readRow();
+                    return true;
+                }
+            }
+            size = 0;
+            return false;
+        } catch (XMLStreamException e) {
+            throw new ContactImportException("Could not read the XLSX worksheet: " + e.getMessage(), e);
+        }
+    }
+
+    private void readRow() throws XMLStreamException {
+        String rowNumber = sheet.getAttributeValue(null, "r");
+        try {
+            recordLine = rowNumber != null ? Long.parseLong(rowNumber.trim()) : recordLine + 1;
+        } catch (NumberFormatException e) {
+            throw new ContactImportException("The XLSX worksheet has an invalid row number after row " + recordLine + ": " + rowNumber);
+        }
+        size = 0;
+
+        int nextColumn = 0;
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheet.getLocalName())) {
+                String ref = sheet.getAttributeValue(null, "r");
+                int column = ref != null ? column(ref) : nextColumn;
+                String type = sheet.getAttributeValue(null, "t");
+                set(column, readCell(type));
+                nextColumn = column + 1;
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+                return;
+            }
+        }
+    }
+
+    private String readCell(String type) throws XMLStreamException {
+        String raw = null;
+        StringBuilder inline = null;
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (sheet.getLocalName()) {
+                    case "v" -> raw = sheet.getElementText();
+                    case "is" -> inline = new StringBuilder();
+                    case "t" -> {
+                        if (inline != null) {
+                            inline.append(sheet.getElementText());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(sheet.getLocalName())) {
+                break;
+            }
+        }
+
+        if ("inlineStr".equals(type)) {
+            return inline != null ? inline.toString() : "";
+        }
+        if (raw == null) {
+            return "";
+        }
+        if ("s".equals(type)) {
+            int index;
+            try {
+                index = Integer.parseInt(raw.trim());
+            } catch (NumberFormatException e) {
+                index = -1;
+            }
+            if (index < 0 || index >= sharedStrings.size()) {
+                throw new ContactImportException("XLSX row " + recordLine + " points to a missing shared string.");
+            }
+            return sharedStrings.get(index);
+        }
+        if ("b".equals(type)) {
+            return "1".equals(raw.trim()) ? "true" : "false";
+        }
+        return raw;
+    }
+
+    /** Zero-based column of a cell reference such as "AB12". */
+    private static int column(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+            if (column > MAX_COLUMNS) {
+                break;
+            }
+        }
+        return column - 1;
+    }
+
+    private void set(int column, String value) {
+        if (column < 0 || column >= MAX_COLUMNS) {
+            throw new ContactImportException("XLSX row " + recordLine + " has a cell outside the sheet.");
+        }
+        if (column >= values.length) {
+            values = Arrays.copyOf(values, Math.max(column + 1, values.length * 2));
+        }
+        for (int i = size; i < column; i++) {
+            values[i] = "";
+        }
+        values[column] = value;
+        size = Math.max(size, column + 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isBlank() {
+        for (int i = 0; i < size; i++) {
+            if (!values[i].isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long recordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public String value(int col) {
+        return values[col].trim();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sheet != null) {
+                sheet.close();
+            }
+        } catch (XMLStreamException e) {
+            // nothing left to read
+        } finally {
+            try {
+                if (sheetInput != null) {
+                    sheetInput.close();
+                }
+                zip.close();
+            } finally {
+                for (Path spilled : spilledSheets.values()) {
+                    Files.deleteIfExists(spilled);
+                }
+            }
+        }
+    }
+
+    private static XMLInputFactory xmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // uploads are untrusted: no DTDs, no external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /** Lets an XML parser read one zip entry without closing the zip stream. */
+    private static final class KeepOpen extends FilterInputStream {
+        KeepOpen(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
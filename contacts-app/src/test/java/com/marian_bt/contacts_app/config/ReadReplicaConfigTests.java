@@ -0,0 +1,108 @@
+package com.marian_bt.contacts_app.config;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.service.ContactSearchCriteria;
+import com.marian_bt.contacts_app.service.ContactService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:replica-config-primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+		"contacts.datasource.replica.url=jdbc:h2:mem:replica-config-replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"contacts.cache.search.spec=maximumSize=0",
+		"contacts.search.index.enabled=false"
+})
+class ReadReplicaConfigTests {
+
+	private static final Map<String, Boolean> READ_ONLY_BY_METHOD = new ConcurrentHashMap<>();
+
+	@TestConfiguration
+	static class RecordingConfig {
+
+		@Bean
+		TransactionExecutionListener readOnlyRecorder() {
+			return new TransactionExecutionListener() {
+				@Override
+				public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+					String name = transaction.getTransactionName();
+					READ_ONLY_BY_METHOD.put(name.substring(name.lastIndexOf('.') + 1), transaction.isReadOnly());
+				}
+			};
+		}
+	}
+
+	@Autowired
+	private ContactService contactService;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private DataSource primary;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private DataSource replica;
+
+	private Long annId;
+
+	@BeforeEach
+	void setUp() {
+		READ_ONLY_BY_METHOD.clear();
+		Path schema = Path.of(System.getProperty("java.io.tmpdir"), "contacts-replica-schema.sql");
+		new JdbcTemplate(primary).execute("SCRIPT NODATA DROP TO '" + schema + "'");
+		new JdbcTemplate(primary).execute("DELETE FROM contacts");
+		new JdbcTemplate(replica).execute("RUNSCRIPT FROM '" + schema + "'");
+		annId = contactService.createContact(contact("Lee"), "admin").getId();
+	}
+
+	@Test
+	void uncachedReadsUseTheReplica() {
+		assertTrue(contactService.getAllContacts().isEmpty());
+		assertEquals(Boolean.TRUE, READ_ONLY_BY_METHOD.get("getAllContacts"));
+	}
+
+	@Test
+	void readsThatFillACacheAreReadOnlyButUseThePrimary() {
+		assertEquals("Lee", contactService.getContactById(annId).getLastName());
+		assertEquals(1, contactService.getAllContacts(PageRequest.of(0, 10)).getTotalElements());
+		ContactSearchCriteria criteria = new ContactSearchCriteria();
+		criteria.setLastName("Lee");
+		assertEquals(1, contactService.searchContacts(criteria, PageRequest.of(0, 10)).getTotalElements());
+
+		assertEquals(Boolean.TRUE, READ_ONLY_BY_METHOD.get("getContactById"));
+		assertEquals(Boolean.TRUE, READ_ONLY_BY_METHOD.get("getAllContacts"));
+		assertEquals(Boolean.TRUE, READ_ONLY_BY_METHOD.get("searchContacts"));
+	}
+
+	private static Contact contact(String lastName) {
+		Contact contact = new Contact();
+		contact.setEmail("ann@example.org");
+		contact.setFirstName("Ann");
+		contact.setLastName(lastName);
+		contact.setInstitution("Uni");
+		contact.setGender("female");
+		return contact;
+	}
+}
@@ -0,0 +1,65 @@
+package com.marian_bt.contacts_app.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadReplicaRoutingDataSourceTests {
+
+	private JdbcTemplate jdbc;
+	private TransactionTemplate readWrite;
+	private TransactionTemplate readOnly;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = h2("primary");
+		DataSource replica = h2("replica");
+		DataSource routing = new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, replica));
+
+		jdbc = new JdbcTemplate(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	private static DataSource h2(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+		jdbc.execute("DELETE FROM node");
+		jdbc.update("INSERT INTO node VALUES (?)", name);
+		return dataSource;
+	}
+
+	private String node() {
+		return jdbc.queryForObject("SELECT name FROM node", String.class);
+	}
+
+	@Test
+	void readOnlyTransactionsUseTheReplica() {
+		assertEquals("replica", readOnly.execute(status -> node()));
+	}
+
+	@Test
+	void readWriteTransactionsAndPlainCallsUseThePrimary() {
+		assertEquals("primary", readWrite.execute(status -> node()));
+		assertEquals("primary", node());
+	}
+
+	@Test
+	void pinnedReadOnlyTransactionsUseThePrimary() {
+		assertEquals("primary", readOnly.execute(status -> PrimaryReads.call(this::node)));
+		assertEquals("primary", PrimaryReads.call(() -> readOnly.execute(status -> node())));
+		assertEquals("replica", readOnly.execute(status -> node()));
+	}
+}
@@ -0,0 +1,171 @@
+package com.marian_bt.contacts_app.controller;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import com.marian_bt.contacts_app.service.ContactExportException;
+import com.marian_bt.contacts_app.service.ContactField;
+import com.marian_bt.contacts_app.service.ContactService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:contact-api;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@AutoConfigureMockMvc
+class ContactApiControllerTests {
+
+	private static final String CONTACTS = "/api/v1/contacts";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ContactRepository contactRepository;
+
+	@MockitoSpyBean
+	private ContactService contactService;
+
+	private Long annId;
+
+	@BeforeEach
+	void setUp() {
+		contactRepository.deleteAll();
+		Contact ann = new Contact();
+		ann.setFirstName("Ann");
+		ann.setLastName("Lee");
+		ann.setInstitution("Uni");
+		ann.setEmail("ann@example.org");
+		ann.setGender("female");
+		ann.setComments("Met at the spring fair");
+		annId = contactRepository.save(ann).getId();
+	}
+
+	@Test
+	void listsOnlyTheRequestedFields() throws Exception {
+		mvc.perform(get(CONTACTS).param("fields", "email,id,email").with(user()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].id").value(annId))
+				.andExpect(jsonPath("$.content[0].email").value("ann@example.org"))
+				.andExpect(jsonPath("$.content[0].lastName").doesNotExist());
+		verify(contactService).findContactFields(any(), eq(List.of(ContactField.EMAIL, ContactField.ID)), any());
+
+		mvc.perform(get(CONTACTS).with(user()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].lastName").value("Lee"))
+				.andExpect(jsonPath("$.content[0].comments").doesNotExist());
+	}
+
+	@Test
+	void returnsTheRequestedFieldsOfOneContact() throws Exception {
+		mvc.perform(get(CONTACTS + "/" + annId).param("fields", "comments").with(user()))
+				.andExpect(status().isOk())
+				.andExpect(content().json("{\"comments\":\"Met at the spring fair\"}", true));
+	}
+
+	@Test
+	void unknownFieldsAndSortPropertiesAreBadRequests() throws Exception {
+		mvc.perform(get(CONTACTS).param("fields", "id,password").with(user()))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail").value("Unknown contact field: 'password'"));
+		verify(contactService, never()).findContactFields(any(), anyList(), any());
+
+		mvc.perform(get(CONTACTS).param("sort", "password").with(user()))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail").value("Unknown sort property: 'password'"));
+	}
+
+	@Test
+	void otherArgumentErrorsDoNotLeakTheirMessage() throws Exception {
+		doThrow(new IllegalArgumentException("internal detail"))
+				.when(contactService).getContactFields(eq(annId), anyList());
+
+		mvc.perform(get(CONTACTS + "/" + annId).with(user()))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail").value("Invalid request"));
+	}
+
+	@Test
+	void missingContactsAreNotFound() throws Exception {
+		mvc.perform(get(CONTACTS + "/" + (annId + 1000)).with(user()))
+				.andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.status").value(404));
+	}
+
+	@Test
+	void invalidContactsListTheirFieldErrors() throws Exception {
+		mvc.perform(post(CONTACTS).with(admin()).contentType("application/json").content("{\"firstName\":\"Bo\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail").value("Invalid contact"))
+				.andExpect(jsonPath("$.errors.email").exists())
+				.andExpect(jsonPath("$.errors.firstName").doesNotExist());
+	}
+
+	@Test
+	void onlyDuplicateEmailsAreConflicts() throws Exception {
+		mvc.perform(post(CONTACTS).with(admin()).contentType("application/json").content(contactJson("ann@example.org", "Dr")))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.detail").value("A contact with this email already exists"));
+
+		mvc.perform(post(CONTACTS).with(admin()).contentType("application/json")
+						.content(contactJson("bo@example.org", "x".repeat(300))))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail").value("The contact could not be stored"))
+				.andExpect(content().string(not(containsString("TITLE"))));
+
+		mvc.perform(post(CONTACTS).with(admin()).contentType("application/json").content(contactJson("bo@example.org", "Dr")))
+				.andExpect(status().isCreated());
+	}
+
+	@Test
+	void refusedExportsAreUnprocessable() throws Exception {
+		doThrow(new ContactExportException("Export as CSV instead."))
+				.when(contactService).exportContacts(any(), any(), any());
+
+		mvc.perform(get(CONTACTS + "/export").param("format", "xlsx").with(user()))
+				.andExpect(status().isUnprocessableContent())
+				.andExpect(jsonPath("$.detail").value("Export as CSV instead."));
+	}
+
+	private static String contactJson(String email, String title) {
+		return "{\"title\":\"" + title + "\",\"firstName\":\"Bo\",\"lastName\":\"Ng\",\"institution\":\"Uni\","
+				+ "\"email\":\"" + email + "\",\"gender\":\"male\"}";
+	}
+
+	private static RequestPostProcessor user() {
+		return jwt().authorities(new SimpleGrantedAuthority("ROLE_USER"));
+	}
+
+	private static RequestPostProcessor admin() {
+		return jwt().jwt(token -> token.subject("api-admin")).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"));
+	}
+}
@@ -0,0 +1,88 @@
+package com.marian_bt.contacts_app.repository;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class ContactRepositoryImplTests {
+
+	@Autowired
+	private ContactRepository contactRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void upsertMergesExistingEmailsCaseInsensitivelyAndInsertsNewOnes() {
+		Long storedId = contactRepository.saveAndFlush(contact("Ann@Example.org", "Ann", "Lee")).getId();
+		entityManager.clear();
+		LocalDateTime storedCreatedAt = contactRepository.findById(storedId).orElseThrow().getCreatedAt();
+		entityManager.clear();
+		assertTrue(contactRepository.supportsBulkUpsert());
+
+		LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+		Contact update = contact("ann@example.org", "Anna", "Changed");
+		Contact created = contact("bo@example.org", "Bo", "Ng");
+		for (Contact contact : List.of(update, created)) {
+			contact.setCreatedAt(now);
+			contact.setUpdatedAt(now);
+		}
+		// batch size 1 runs one statement per row, so ids are resolved per batch
+		contactRepository.upsertByEmail(List.of(update, created), Set.of("firstName"), 1);
+
+		assertEquals(storedId, update.getId());
+		assertNotNull(created.getId());
+		assertNotEquals(storedId, created.getId());
+
+		entityManager.clear();
+		assertEquals(2, contactRepository.count());
+
+		Contact merged = contactRepository.findById(storedId).orElseThrow();
+		assertEquals("Anna", merged.getFirstName());
+		assertEquals("Lee", merged.getLastName(), "attributes outside the update set are kept");
+		assertEquals("Ann@Example.org", merged.getEmail());
+		assertEquals(storedCreatedAt, merged.getCreatedAt());
+		assertEquals(now, merged.getUpdatedAt());
+
+		Contact inserted = contactRepository.findById(created.getId()).orElseThrow();
+		assertEquals("bo@example.org", inserted.getEmail());
+		assertEquals("Ng", inserted.getLastName());
+		assertEquals(now, inserted.getCreatedAt());
+	}
+
+	@Test
+	void mysqlUpsertReadsNewValuesThroughTheRowAlias() {
+		String sql = ContactUpsertSql.mysql(2, Set.of("firstName"));
+
+		assertTrue(sql.endsWith(") AS new ON DUPLICATE KEY UPDATE first_name = new.first_name, "
+				+ "updated_at = new.updated_at, updated_by = new.updated_by"), sql);
+		assertFalse(sql.contains("VALUES("), sql);
+	}
+
+	private static Contact contact(String email, String firstName, String lastName) {
+		Contact contact = new Contact();
+		contact.setEmail(email);
+		contact.setFirstName(firstName);
+		contact.setLastName(lastName);
+		contact.setInstitution("Uni");
+		contact.setGender("female");
+		return contact;
+	}
+}
@@ -0,0 +1,151 @@
+package com.marian_bt.contacts_app.security;
+
+import com.marian_bt.contacts_app.domain.AppUser;
+import com.marian_bt.contacts_app.domain.UserRole;
+import com.marian_bt.contacts_app.repository.AppUserRepository;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:api-auth;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+		"contacts.api.token.secret=0123456789abcdef0123456789abcdef"
+})
+@AutoConfigureMockMvc
+class ApiTokenAuthenticationTests {
+
+	private static final String CONTACTS = "/api/v1/contacts";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private AppUserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private JwtEncoder apiTokenEncoder;
+
+	@BeforeEach
+	void setUp() {
+		user("api-admin", UserRole.ADMIN);
+		user("api-user", UserRole.USER);
+	}
+
+	@Test
+	void issuesTokensForValidCredentialsOnly() throws Exception {
+		mvc.perform(post("/api/token").with(httpBasic("api-user", "wrong"))).andExpect(status().isUnauthorized());
+		mvc.perform(post("/api/token")).andExpect(status().isUnauthorized());
+
+		MvcResult result = mvc.perform(post("/api/token").with(httpBasic("api-user", "secret")))
+				.andExpect(status().isOk()).andReturn();
+		assertNull(result.getRequest().getSession(false));
+	}
+
+	@Test
+	void apiRequestsNeedAValidBearerToken() throws Exception {
+		mvc.perform(get(CONTACTS)).andExpect(status().isUnauthorized());
+		mvc.perform(get(CONTACTS).with(httpBasic("api-user", "secret"))).andExpect(status().isUnauthorized());
+		mvc.perform(get(CONTACTS).header("Authorization", "Bearer not-a-jwt")).andExpect(status().isUnauthorized());
+		mvc.perform(get(CONTACTS).header("Authorization", bearer(token("api-user") + "x")))
+				.andExpect(status().isUnauthorized());
+
+		MvcResult result = mvc.perform(get(CONTACTS).header("Authorization", bearer(token("api-user"))))
+				.andExpect(status().isOk()).andReturn();
+		assertNull(result.getRequest().getSession(false));
+		assertNull(result.getResponse().getHeader("Set-Cookie"));
+	}
+
+	@Test
+	void rejectsExpiredForeignAndOtherIssuersTokens() throws Exception {
+		Instant now = Instant.now();
+		String expired = encode(apiTokenEncoder, "contacts-app",
+				now.minus(2, ChronoUnit.HOURS), now.minus(1, ChronoUnit.HOURS));
+		String otherIssuer = encode(apiTokenEncoder, "someone-else", now, now.plus(1, ChronoUnit.HOURS));
+		String otherKey = encode(new NimbusJwtEncoder(new ImmutableSecret<>(new SecretKeySpec(
+						"another-key-of-at-least-32-bytes!".getBytes(StandardCharsets.UTF_8), "HmacSHA256"))),
+				"contacts-app", now, now.plus(1, ChronoUnit.HOURS));
+
+		for (String token : List.of(expired, otherIssuer, otherKey)) {
+			mvc.perform(get(CONTACTS).header("Authorization", bearer(token))).andExpect(status().isUnauthorized());
+		}
+		mvc.perform(get(CONTACTS).header("Authorization",
+						bearer(encode(apiTokenEncoder, "contacts-app", now, now.plus(1, ChronoUnit.HOURS)))))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void writesNeedTheAdminRole() throws Exception {
+		mvc.perform(post(CONTACTS).header("Authorization", bearer(token("api-user")))
+						.contentType("application/json").content("{}"))
+				.andExpect(status().isForbidden());
+		mvc.perform(post(CONTACTS).header("Authorization", bearer(token("api-admin")))
+						.contentType("application/json").content("{}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private String token(String username) throws Exception {
+		String body = mvc.perform(post("/api/token").with(httpBasic(username, "secret")))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		return body.replaceAll(".*\"access_token\":\"([^\"]+)\".*", "$1");
+	}
+
+	private static String encode(JwtEncoder encoder, String issuer, Instant issuedAt, Instant expiresAt) {
+		JwtClaimsSet claims = JwtClaimsSet.builder()
+				.issuer(issuer)
+				.subject("api-user")
+				.issuedAt(issuedAt)
+				.expiresAt(expiresAt)
+				.claim(ApiTokenService.ROLES_CLAIM, List.of("USER"))
+				.build();
+		return encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+				.getTokenValue();
+	}
+
+	private static String bearer(String token) {
+		return "Bearer " + token;
+	}
+
+	private void user(String username, UserRole role) {
+		if (userRepository.findByUsername(username).isEmpty()) {
+			AppUser user = new AppUser();
+			user.setUsername(username);
+			user.setPassword(passwordEncoder.encode("secret"));
+			user.setRole(role);
+			user.setEnabled(true);
+			userRepository.save(user);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.marian_bt.contacts_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContactCountCacheTests {
+
+	@Test
+	void writesTurnExactCountsIntoEstimates() {
+		ContactCountCache cache = new ContactCountCache(10);
+		assertEquals(5L, cache.countNow("smith", () -> 5L));
+		assertEquals(5L, cache.exact("smith"));
+
+		// outside a transaction the generation is bumped right away
+		cache.invalidateAfterCommit();
+
+		assertNull(cache.exact("smith"));
+		assertEquals(5L, cache.estimate("smith"));
+		assertNull(cache.estimate("jones"));
+	}
+
+	@Test
+	void countsTakenBeforeANewerOneDoNotOverwriteIt() {
+		ContactCountCache cache = new ContactCountCache(10);
+		long before = cache.currentGeneration();
+		cache.invalidateAfterCommit();
+
+		cache.put("smith", 6L, cache.currentGeneration());
+		cache.put("smith", 5L, before);
+		assertEquals(6L, cache.exact("smith"));
+
+		cache.put("jones", 1L, before);
+		assertNull(cache.exact("jones"));
+		assertEquals(1L, cache.estimate("jones"));
+	}
+
+	@Test
+	void keepsOnlyTheMostRecentlyUsedEntries() {
+		ContactCountCache cache = new ContactCountCache(2);
+		cache.countNow("a", () -> 1L);
+		cache.countNow("b", () -> 2L);
+		cache.exact("a");
+		cache.countNow("c", () -> 3L);
+
+		assertEquals(1L, cache.exact("a"));
+		assertNull(cache.estimate("b"));
+		assertEquals(3L, cache.exact("c"));
+	}
+
+	@Test
+	void refreshesInTheBackground() throws InterruptedException {
+		ContactCountCache cache = new ContactCountCache(10);
+		CountDownLatch counted = new CountDownLatch(1);
+		cache.refreshAsync("smith", () -> {
+			counted.countDown();
+			return 4L;
+		});
+
+		assertTrue(counted.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 50 && cache.exact("smith") == null; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(4L, cache.exact("smith"));
+		cache.shutdown();
+	}
+}
@@ -0,0 +1,47 @@
+package com.marian_bt.contacts_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ContactCursorTests {
+
+	@Test
+	void encodedCursorParsesBackToTheSamePosition() {
+		String token = new ContactCursor("Müller-Lüdenscheidt", "José María", 42L).encode();
+
+		assertFalse(token.contains("=") || token.contains("+") || token.contains("/"), token);
+		ContactCursor parsed = ContactCursor.parse(token);
+		assertEquals("Müller-Lüdenscheidt", parsed.getLastName());
+		assertEquals("José María", parsed.getFirstName());
+		assertEquals(42L, parsed.getId());
+	}
+
+	@Test
+	void emptyNamesSurviveTheRoundTrip() {
+		ContactCursor parsed = ContactCursor.parse(new ContactCursor("", "", 7L).encode());
+
+		assertEquals("", parsed.getLastName());
+		assertEquals("", parsed.getFirstName());
+		assertEquals(7L, parsed.getId());
+	}
+
+	@Test
+	void blankOrMalformedTokensStartFromTheBeginning() {
+		assertNull(ContactCursor.parse(null));
+		assertNull(ContactCursor.parse(" "));
+		assertNull(ContactCursor.parse("not base64!"));
+		assertNull(ContactCursor.parse(token("Lee")));
+		assertNull(ContactCursor.parse(token("Lee\u001FAnn")));
+		assertNull(ContactCursor.parse(token("Lee\u001FAnn\u001Fx")));
+	}
+
+	private static String token(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
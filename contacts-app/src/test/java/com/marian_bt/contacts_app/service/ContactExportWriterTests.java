@@ -0,0 +1,107 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContactExportWriterTests {
+
+	@Test
+	void csvQuotesTextAndLeavesNullsEmpty() throws IOException {
+		Contact contact = contact(7L, "Ann \"Q\", Jr.");
+		contact.setCreatedAt(LocalDateTime.of(2024, 5, 1, 9, 30));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ContactExportWriter.export(new CsvExportWriter(out), rows -> rows.accept(contact));
+
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("id,title,firstName,lastName"));
+		assertTrue(lines[1].startsWith("7,\"\",\"Ann \"\"Q\"\", Jr.\",\"Lee\""), lines[1]);
+		assertTrue(lines[1].endsWith(",\"true\",\"false\",\"false\",\"2024-05-01 09:30\",\"\""), lines[1]);
+	}
+
+	@Test
+	void gzipExportIsFinishedOnlyWhenAllRowsWereWritten() throws IOException {
+		ByteArrayOutputStream complete = new ByteArrayOutputStream();
+		ContactExportWriter.export(ContactExportFormat.CSV_GZIP.open(complete), rows -> rows.accept(contact(1L, "Ann")));
+		String csv = new String(new GZIPInputStream(new ByteArrayInputStream(complete.toByteArray())).readAllBytes(),
+				StandardCharsets.UTF_8);
+		assertEquals(2, csv.lines().count());
+
+		ByteArrayOutputStream cutOff = new ByteArrayOutputStream();
+		IllegalStateException failure = new IllegalStateException("database gone");
+		assertSame(failure, assertThrows(IllegalStateException.class, () ->
+				ContactExportWriter.export(ContactExportFormat.CSV_GZIP.open(cutOff), rows -> {
+					rows.accept(contact(1L, "Ann"));
+					throw failure;
+				})));
+		assertThrows(EOFException.class, () ->
+				new GZIPInputStream(new ByteArrayInputStream(cutOff.toByteArray())).readAllBytes());
+	}
+
+	@Test
+	void xlsxExportReadsBackAsWorkbook() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ContactExportWriter.export(new XlsxExportWriter(out), rows -> {
+			rows.accept(contact(1L, "A & <B>"));
+			rows.accept(contact(2L, "Line\nbreak"));
+		});
+
+		try (XlsxReader reader = new XlsxReader(new ByteArrayInputStream(out.toByteArray()))) {
+			assertTrue(reader.next());
+			assertEquals("id", reader.value(0));
+			assertTrue(reader.next());
+			assertEquals("1", reader.value(0));
+			assertEquals("A & <B>", reader.value(2));
+			assertEquals("true", reader.value(14));
+			assertTrue(reader.next());
+			assertEquals("Line\nbreak", reader.value(2));
+			assertFalse(reader.next());
+		}
+	}
+
+	@Test
+	void xlsxRowLimitLeavesTheWorkbookUnfinished() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		IOException failure = assertThrows(IOException.class, () ->
+				ContactExportWriter.export(new XlsxExportWriter(out, 3), rows -> {
+					for (long id = 1; id <= 3; id++) {
+						rows.accept(contact(id, "Ann"));
+					}
+				}));
+		assertTrue(failure.getMessage().contains("at most 3 rows"));
+
+		// header plus two rows went out, but no end of sheet and no zip directory
+		assertThrows(Exception.class, () -> {
+			try (XlsxReader reader = new XlsxReader(new ByteArrayInputStream(out.toByteArray()))) {
+				while (reader.next()) {
+					// read to the end
+				}
+			}
+		});
+	}
+
+	private static Contact contact(Long id, String firstName) {
+		Contact contact = new Contact();
+		contact.setId(id);
+		contact.setFirstName(firstName);
+		contact.setLastName("Lee");
+		contact.setEmail("c" + id + "@example.org");
+		contact.setContactedByIngenium(true);
+		return contact;
+	}
+}
@@ -0,0 +1,260 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactImportCheckpointRepository;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:import-jobs;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+		"contacts.import.chunk-size=2",
+		"contacts.import.spool-dir=${java.io.tmpdir}/contacts-import-job-tests"
+})
+class ContactImportJobServiceTests {
+
+	private static final String HEADER = "email,firstName,lastName,institution,gender\n";
+
+	@Autowired
+	private ContactImportJobService jobService;
+
+	@Autowired
+	private ContactRepository contactRepository;
+
+	@Autowired
+	private ContactImportCheckpointRepository checkpointRepository;
+
+	@Autowired
+	private ContactImportCheckpoints checkpoints;
+
+	@Autowired
+	private ContactService contactService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@MockitoSpyBean
+	private ContactImportWriter importWriter;
+
+	@Value("${contacts.import.spool-dir}")
+	private Path spoolDir;
+
+	@BeforeEach
+	void setUp() {
+		contactRepository.deleteAll();
+		checkpointRepository.deleteAll();
+	}
+
+	@Test
+	void filesThatCannotBeParsedFailForGood() throws Exception {
+		ContactImportJob job = finished(jobService.submit(csv("name,institution\nAnn,Uni\n")));
+
+		assertEquals(ContactImportJob.Status.FAILED, job.getStatus());
+		assertFalse(job.isResumable());
+		assertCleanedUp(job.getId());
+	}
+
+	@Test
+	void databaseErrorsBeforeTheFirstCommitAreNotResumable() throws Exception {
+		failOnChunk(1);
+
+		ContactImportJob job = finished(jobService.submit(csv(HEADER + rows(1, 5))));
+
+		assertEquals(ContactImportJob.Status.FAILED, job.getStatus());
+		assertFalse(job.isResumable());
+		assertCleanedUp(job.getId());
+	}
+
+	@Test
+	void importFailingMidFileResumesAfterItsLastCommittedChunk() throws Exception {
+		AtomicInteger failures = failOnChunk(2);
+
+		ContactImportJob failed = finished(jobService.submit(csv(HEADER + rows(1, 5))));
+		assertEquals(ContactImportJob.Status.FAILED, failed.getStatus());
+		assertTrue(failed.isResumable());
+		assertEquals(List.of("c1@example.org", "c2@example.org"), emails());
+		assertEquals(1, checkpointRepository.findByJobIdOrderByPartitionNo(failed.getId()).size());
+		assertTrue(Files.exists(spoolDir.resolve(failed.getId() + ".upload")));
+
+		failures.set(-1);
+		ContactImportJob resumed = finished(jobService.resume(failed.getId()));
+
+		assertEquals(ContactImportJob.Status.COMPLETED, resumed.getStatus());
+		assertEquals(2, resumed.getRowsSkipped());
+		assertEquals(3, resumed.getRowsProcessed());
+		assertEquals(List.of("c1@example.org", "c2@example.org", "c3@example.org", "c4@example.org",
+				"c5@example.org"), emails());
+		assertCleanedUp(resumed.getId());
+	}
+
+	@Test
+	void importsInterruptedByARestartAreRestoredAndResumed() throws Exception {
+		String jobId = spool(HEADER + rows(1, 5));
+		importCsv(HEADER + rows(1, 2));
+		checkpoint(jobId, sha256(spoolDir.resolve(jobId + ".upload")), 2);
+
+		jobService.restoreUnfinishedImports();
+
+		ContactImportJob restored = jobService.findJob(jobId).orElseThrow();
+		assertEquals(ContactImportJob.Status.FAILED, restored.getStatus());
+		assertTrue(restored.isResumable());
+		assertEquals("Import failed: interrupted by a server restart after 2 committed rows.", restored.getMessage());
+
+		ContactImportJob resumed = finished(jobService.resume(jobId));
+		assertEquals(ContactImportJob.Status.COMPLETED, resumed.getStatus());
+		assertEquals(2, resumed.getRowsSkipped());
+		assertEquals(List.of("c1@example.org", "c2@example.org", "c3@example.org", "c4@example.org",
+				"c5@example.org"), emails());
+		assertCleanedUp(jobId);
+	}
+
+	@Test
+	void restoreShowsTheRecordedFailureAndDropsCheckpointsWithoutAFile() throws Exception {
+		String failedId = spool(HEADER + rows(1, 3));
+		checkpoint(failedId, sha256(spoolDir.resolve(failedId + ".upload")), 2);
+		checkpoints.recordFailure(failedId, "connection lost");
+		String orphanId = UUID.randomUUID().toString();
+		checkpoint(orphanId, "0".repeat(64), 2);
+
+		jobService.restoreUnfinishedImports();
+
+		assertEquals("Import failed: connection lost", jobService.findJob(failedId).orElseThrow().getMessage());
+		assertTrue(jobService.findJob(orphanId).isEmpty());
+		assertTrue(checkpointRepository.findByJobIdOrderByPartitionNo(orphanId).isEmpty());
+	}
+
+	@Test
+	void aChangedFileIsNotResumed() throws Exception {
+		String jobId = spool(HEADER + rows(1, 3));
+		checkpoint(jobId, "0".repeat(64), 2);
+		jobService.restoreUnfinishedImports();
+
+		ContactImportJob resumed = finished(jobService.resume(jobId));
+
+		assertEquals("Import failed: The file changed since the import was started; it cannot be resumed.",
+				resumed.getMessage());
+		assertFalse(resumed.isResumable());
+		assertTrue(emails().isEmpty());
+		assertCleanedUp(jobId);
+	}
+
+	@Test
+	void onlyDatabaseAndIoErrorsAreRetryable() {
+		assertTrue(ContactImportJobService.isRetryable(new DataAccessResourceFailureException("connection lost")));
+		assertTrue(ContactImportJobService.isRetryable(
+				new ContactImportException("Failed to read the import file", new IOException("disk"))));
+		assertTrue(ContactImportJobService.isRetryable(new UncheckedIOException(new IOException("disk"))));
+
+		assertFalse(ContactImportJobService.isRetryable(new ContactImportException("The header row must contain an 'email' column")));
+		assertFalse(ContactImportJobService.isRetryable(new InvalidContactRowException("a@example.org", "gender: invalid")));
+		assertFalse(ContactImportJobService.isRetryable(
+				new ContactImportException("Failed to read the import file", new ZipException("Not in GZIP format"))));
+		assertFalse(ContactImportJobService.isRetryable(
+				new ContactImportException("Failed to read the import file", new EOFException())));
+		assertFalse(ContactImportJobService.isRetryable(new IllegalStateException("bug")));
+	}
+
+	/** Makes the writer throw a database error on the given chunk (counting from 1) until reset to -1. */
+	private AtomicInteger failOnChunk(int chunk) {
+		AtomicInteger failOn = new AtomicInteger(chunk);
+		AtomicInteger calls = new AtomicInteger();
+		doAnswer(invocation -> {
+			if (calls.incrementAndGet() == failOn.get()) {
+				throw new DataAccessResourceFailureException("connection lost");
+			}
+			return invocation.callRealMethod();
+		}).when(importWriter).writeChunk(any(), any());
+		return failOn;
+	}
+
+	/** Leaves an upload in the spool directory as if the server had stopped while importing it. */
+	private String spool(String body) throws IOException {
+		String jobId = UUID.randomUUID().toString();
+		Files.createDirectories(spoolDir);
+		Files.writeString(spoolDir.resolve(jobId + ".upload"), body);
+		return jobId;
+	}
+
+	private void checkpoint(String jobId, String fileHash, int committedRows) {
+		ImportCheckpoint checkpoint = checkpoints.forJob(jobId, "contacts.csv", fileHash, "admin");
+		checkpoint.begin(1);
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> checkpoint.advance(0, committedRows));
+	}
+
+	private void importCsv(String body) {
+		contactService.importContacts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static String sha256(Path file) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file)));
+	}
+
+	private void assertCleanedUp(String jobId) throws InterruptedException {
+		Path spooled = spoolDir.resolve(jobId + ".upload");
+		// the worker cleans up just after marking the job finished
+		for (int i = 0; i < 100 && (Files.exists(spooled)
+				|| !checkpointRepository.findByJobIdOrderByPartitionNo(jobId).isEmpty()); i++) {
+			Thread.sleep(20);
+		}
+		assertFalse(Files.exists(spooled));
+		assertTrue(checkpointRepository.findByJobIdOrderByPartitionNo(jobId).isEmpty());
+	}
+
+	private List<String> emails() {
+		return contactRepository.findAll().stream().map(Contact::getEmail).sorted().toList();
+	}
+
+	private static ContactImportJob finished(ContactImportJob job) throws InterruptedException {
+		for (int i = 0; i < 500 && !job.isFinished(); i++) {
+			Thread.sleep(20);
+		}
+		assertTrue(job.isFinished(), "job did not finish");
+		return job;
+	}
+
+	private static String rows(int from, int to) {
+		StringBuilder rows = new StringBuilder();
+		for (int i = from; i <= to; i++) {
+			rows.append("c").append(i).append("@example.org,Ann,Lee,Uni,female\n");
+		}
+		return rows.toString();
+	}
+
+	private static MockMultipartFile csv(String body) {
+		return new MockMultipartFile("file", "contacts.csv", "text/csv", body.getBytes(StandardCharsets.UTF_8));
+	}
+}
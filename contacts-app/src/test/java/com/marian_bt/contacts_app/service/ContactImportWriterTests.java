@@ -0,0 +1,99 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:import-writer;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class ContactImportWriterTests {
+
+	private static final String HEADER = "email,firstName,lastName,institution,gender\n";
+
+	@Autowired
+	private ContactService contactService;
+
+	@Autowired
+	private ContactRepository contactRepository;
+
+	@Autowired
+	private ContactSearchIndex searchIndex;
+
+	@BeforeEach
+	void setUp() {
+		contactRepository.deleteAll();
+		searchIndex.rebuild();
+	}
+
+	@Test
+	void reimportLeavesUnchangedRowsAlone() throws InterruptedException {
+		importCsv("ann@example.org,Ann,Lee,Uni,female\nbo@example.org,Bo,Ng,Uni,male\n");
+		Map<String, LocalDateTime> imported = updatedAtByEmail();
+
+		Thread.sleep(20);
+		importCsv("ann@example.org,Ann,Lee,Uni,female\nbo@example.org,Bo,Ng,Uni,male\n");
+		assertEquals(imported, updatedAtByEmail());
+
+		importCsv("ann@example.org,Ann,Lee,Uni,female\nbo@example.org,Bo,Ngo,Uni,male\n");
+		Map<String, LocalDateTime> changed = updatedAtByEmail();
+		assertEquals(imported.get("ann@example.org"), changed.get("ann@example.org"));
+		assertNotEquals(imported.get("bo@example.org"), changed.get("bo@example.org"));
+		assertEquals(2, contactRepository.count());
+	}
+
+	@Test
+	void genderIsComparedTheWayItIsStored() throws InterruptedException {
+		importCsv("ann@example.org,Ann,Lee,Uni,female\nbo@example.org,Bo,Ng,Uni,male\n");
+		Map<String, LocalDateTime> imported = updatedAtByEmail();
+
+		Thread.sleep(20);
+		importCsv("ann@example.org,Ann,Lee,Uni,Female\nbo@example.org,Bo,Ng,Uni,\" MALE \"\n");
+		assertEquals(imported, updatedAtByEmail());
+	}
+
+	@Test
+	void updatedRowsReplaceTheirSearchPostings() {
+		importCsv("ann@example.org,Ann,Smith,Uni,female\n");
+		Long id = contactRepository.findAll().get(0).getId();
+		assertEquals(List.of(id), candidates("smith"));
+
+		importCsv("ann@example.org,Ann,Jones,Uni,female\n");
+		assertEquals(List.of(), candidates("smith"));
+		assertEquals(List.of(id), candidates("jones"));
+	}
+
+	private void importCsv(String rows) {
+		contactService.importContacts(new ByteArrayInputStream((HEADER + rows).getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private Map<String, LocalDateTime> updatedAtByEmail() {
+		return contactRepository.findAll().stream()
+				.collect(Collectors.toMap(Contact::getEmail, Contact::getUpdatedAt));
+	}
+
+	private List<Long> candidates(String lastName) {
+		ContactSearchCriteria criteria = new ContactSearchCriteria();
+		criteria.setLastName(lastName);
+		return searchIndex.findCandidateIds(criteria);
+	}
+}
@@ -0,0 +1,117 @@
+package com.marian_bt.contacts_app.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marian_bt.contacts_app.config.CacheConfig;
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:contact-page-cache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class ContactPageCacheTests {
+
+	private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+	@Autowired
+	private ContactService contactService;
+
+	@Autowired
+	private ContactRepository contactRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Long annId;
+
+	@BeforeEach
+	void setUp() {
+		contactRepository.deleteAll();
+		cacheManager.getCache(CacheConfig.CONTACT_SEARCH_CACHE).clear();
+		annId = contactRepository.save(contact("Lee")).getId();
+	}
+
+	@Test
+	void aPageReadBeforeAWriteIsNotCachedAfterIt() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			assertEquals("Lee", lastName(contactService.getAllContacts(FIRST_PAGE)));
+			// commits and evicts while this transaction's put is still pending
+			CompletableFuture.runAsync(() -> contactService.updateContact(annId, contact("Ng"), "admin")).join();
+		});
+
+		assertEquals("Ng", lastName(contactService.getAllContacts(FIRST_PAGE)));
+		assertEquals("Ng", lastName(contactService.searchContacts(new ContactSearchCriteria(), FIRST_PAGE)));
+	}
+
+	@Test
+	void pagesAreCachedUntilTheNextWrite() {
+		assertEquals("Lee", lastName(contactService.getAllContacts(FIRST_PAGE)));
+		contactRepository.save(withLastName(contactRepository.findById(annId).orElseThrow(), "Ng"));
+
+		assertEquals("Lee", lastName(contactService.getAllContacts(FIRST_PAGE)));
+
+		contactService.updateContact(annId, contact("Ko"), "admin");
+		assertEquals("Ko", lastName(contactService.getAllContacts(FIRST_PAGE)));
+	}
+
+	@Test
+	void putsFromAnOlderGenerationAreDropped() {
+		ContactCountCache generations = new ContactCountCache(10);
+		ContactPageCache cache = new ContactPageCache("pages", Caffeine.newBuilder().build(), false, generations);
+		ContactPageKey before = new ContactPageKey("all:", generations.currentGeneration());
+
+		generations.invalidateAfterCommit();
+		ContactPageKey after = new ContactPageKey("all:", generations.currentGeneration());
+		cache.put(before, "old");
+		cache.putIfAbsent(before, "old");
+		cache.put(after, "new");
+		cache.put("other", "kept");
+
+		assertNull(cache.get(before));
+		assertEquals("new", cache.get(after, String.class));
+		assertNotNull(cache.get("other"));
+	}
+
+	private static String lastName(Page<ContactSummary> page) {
+		return page.getContent().get(0).getLastName();
+	}
+
+	private static Contact withLastName(Contact contact, String lastName) {
+		contact.setLastName(lastName);
+		return contact;
+	}
+
+	private static Contact contact(String lastName) {
+		Contact contact = new Contact();
+		contact.setEmail("ann@example.org");
+		contact.setFirstName("Ann");
+		contact.setLastName(lastName);
+		contact.setInstitution("Uni");
+		contact.setGender("female");
+		return contact;
+	}
+}
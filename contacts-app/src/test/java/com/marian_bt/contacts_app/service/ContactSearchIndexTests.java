@@ -0,0 +1,93 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContactSearchIndexTests {
+
+	@Test
+	void findsSubstringsIgnoringCaseAndAccents() {
+		ContactSearchIndex index = built(5000, contact(1L, "José", "Müller"), contact(2L, "Ann", "Miller"));
+
+		assertEquals(List.of(1L), index.findCandidateIds(criteria("jose", "MULL")));
+		assertEquals(List.of(1L, 2L), index.findCandidateIds(criteria(null, "ller")));
+		assertEquals(List.of(), index.findCandidateIds(criteria("ann", "müller")));
+	}
+
+	@Test
+	void stripsPrefixAndExactMatchSyntaxBeforeLookingUp() {
+		ContactSearchIndex index = built(5000, contact(1L, "Ann", "Smith"), contact(2L, "Bo", "Smithers"));
+
+		assertEquals(List.of(1L, 2L), index.findCandidateIds(criteria(null, "smi*")));
+		assertEquals(List.of(1L, 2L), index.findCandidateIds(criteria(null, "\"Smith\"")));
+	}
+
+	@Test
+	void leavesTheSearchToTheDatabaseWhenItCannotNarrowIt() {
+		ContactSearchIndex index = built(1, contact(1L, "Ann", "Lee"), contact(2L, "Bo", "Lee"));
+
+		assertNull(index.findCandidateIds(criteria(null, "le")), "terms shorter than a trigram");
+		assertNull(index.findCandidateIds(criteria(null, "lee")), "more candidates than the limit");
+		assertNull(index(5000).findCandidateIds(criteria(null, "lee")), "not built yet");
+	}
+
+	@Test
+	void replacedAndRemovedContactsLoseTheirPostings() {
+		Contact ann = contact(1L, "Ann", "Smith");
+		ContactSearchIndex index = built(5000, ann);
+
+		ContactSearchIndex.Entry before = index.entryOf(ann);
+		ann.setLastName("Jones");
+		index.replaceAfterCommit(before, ann);
+		assertEquals(List.of(), index.findCandidateIds(criteria(null, "smith")));
+		assertEquals(List.of(1L), index.findCandidateIds(criteria(null, "jones")));
+
+		index.removeAfterCommit(index.entryOf(ann));
+		assertEquals(List.of(), index.findCandidateIds(criteria(null, "jones")));
+
+		index.addAfterCommit(contact(3L, "Cy", "Jones"));
+		assertEquals(List.of(3L), index.findCandidateIds(criteria(null, "jones")));
+	}
+
+	private static ContactSearchIndex built(int maxCandidates, Contact... contacts) {
+		ContactRepository repository = mock(ContactRepository.class);
+		when(repository.streamAll(any(), any())).thenReturn(Stream.of(contacts));
+		ContactSearchIndex index = new ContactSearchIndex(repository, mock(EntityManager.class),
+				mock(PlatformTransactionManager.class), true, maxCandidates);
+		index.rebuild();
+		return index;
+	}
+
+	private static ContactSearchIndex index(int maxCandidates) {
+		return new ContactSearchIndex(mock(ContactRepository.class), mock(EntityManager.class),
+				mock(PlatformTransactionManager.class), true, maxCandidates);
+	}
+
+	private static ContactSearchCriteria criteria(String firstName, String lastName) {
+		ContactSearchCriteria criteria = new ContactSearchCriteria();
+		criteria.setFirstName(firstName);
+		criteria.setLastName(lastName);
+		return criteria;
+	}
+
+	private static Contact contact(Long id, String firstName, String lastName) {
+		Contact contact = new Contact();
+		contact.setId(id);
+		contact.setFirstName(firstName);
+		contact.setLastName(lastName);
+		contact.setEmail(firstName.toLowerCase() + "@example.org");
+		return contact;
+	}
+}
@@ -0,0 +1,140 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class ContactSpecificationsTests {
+
+	private static final Sort DEFAULT_SORT = Sort.by(
+			Sort.Order.asc("lastName").ignoreCase(),
+			Sort.Order.asc("firstName").ignoreCase(),
+			Sort.Order.asc("id"));
+
+	@Autowired
+	private ContactRepository contactRepository;
+
+	@BeforeEach
+	void setUp() {
+		contactRepository.saveAll(List.of(
+				contact("Smith", "Uni A"),
+				contact("Smithers", "100% Pure"),
+				contact("Goldsmith", "1000 Pure"),
+				contact("Lee", "a_b"),
+				contact("Ng", "axb"),
+				contact("Diaz", "back\\slash")));
+	}
+
+	@Test
+	void textCriteriaMatchSubstringsIgnoringCase() {
+		assertEquals(List.of("Goldsmith", "Smith", "Smithers"), lastNames(lastName("SMITH")));
+	}
+
+	@Test
+	void trailingStarMatchesPrefixes() {
+		assertEquals(List.of("Smith", "Smithers"), lastNames(lastName("smith*")));
+	}
+
+	@Test
+	void quotedValuesMatchExactly() {
+		assertEquals(List.of("Smith"), lastNames(lastName("\"SMITH\"")));
+	}
+
+	@Test
+	void likeWildcardsInTheTermAreLiteral() {
+		assertEquals(List.of("Smithers"), lastNames(institution("100%")));
+		assertEquals(List.of("Lee"), lastNames(institution("a_b")));
+		assertEquals(List.of("Diaz"), lastNames(institution("k\\s")));
+	}
+
+	@Test
+	void unsetCriteriaAndCandidateIdsRestrictNothingOrEverything() {
+		assertEquals(6, contactRepository.findAll(ContactSpecifications.matching(new ContactSearchCriteria(), null)).size());
+		Long smith = contactRepository.findAll(ContactSpecifications.matching(lastName("\"smith\""), null)).get(0).getId();
+		assertEquals(List.of("Smith"), lastNames(ContactSpecifications.matching(lastName("smith"), Set.of(smith))));
+	}
+
+	@Test
+	void keysetPagesWalkTheDefaultOrderingThroughTies() {
+		contactRepository.saveAll(List.of(
+				contact("lee", "Ann", "lee2@example.org"),
+				contact("LEE", "bo", "lee3@example.org")));
+		List<Contact> expected = contactRepository.findAll(DEFAULT_SORT);
+
+		List<Contact> walked = new ArrayList<>();
+		ContactCursor cursor = null;
+		while (true) {
+			Specification<Contact> spec = ContactSpecifications.matching(new ContactSearchCriteria(), null);
+			if (cursor != null) {
+				spec = spec.and(ContactSpecifications.after(cursor));
+			}
+			List<Contact> page = contactRepository.findAll(spec, PageRequest.of(0, 2, DEFAULT_SORT)).getContent();
+			if (page.isEmpty()) {
+				break;
+			}
+			walked.addAll(page);
+			cursor = ContactCursor.parse(ContactCursor.of(page.get(page.size() - 1)).encode());
+		}
+
+		assertEquals(ids(expected), ids(walked));
+		assertEquals(List.of("Lee", "lee", "LEE"), walked.stream()
+				.map(Contact::getLastName).filter("lee"::equalsIgnoreCase).toList());
+	}
+
+	private static List<Long> ids(List<Contact> contacts) {
+		return contacts.stream().map(Contact::getId).toList();
+	}
+
+	private List<String> lastNames(ContactSearchCriteria criteria) {
+		return lastNames(ContactSpecifications.matching(criteria, null));
+	}
+
+	private List<String> lastNames(Specification<Contact> spec) {
+		return contactRepository.findAll(spec, Sort.by("lastName")).stream().map(Contact::getLastName).toList();
+	}
+
+	private static ContactSearchCriteria lastName(String value) {
+		ContactSearchCriteria criteria = new ContactSearchCriteria();
+		criteria.setLastName(value);
+		return criteria;
+	}
+
+	private static ContactSearchCriteria institution(String value) {
+		ContactSearchCriteria criteria = new ContactSearchCriteria();
+		criteria.setInstitution(value);
+		return criteria;
+	}
+
+	private static Contact contact(String lastName, String institution) {
+		Contact contact = contact(lastName, "Ann", lastName.toLowerCase() + "@example.org");
+		contact.setInstitution(institution);
+		return contact;
+	}
+
+	private static Contact contact(String lastName, String firstName, String email) {
+		Contact contact = new Contact();
+		contact.setFirstName(firstName);
+		contact.setLastName(lastName);
+		contact.setInstitution("Uni");
+		contact.setEmail(email);
+		contact.setGender("female");
+		return contact;
+	}
+}
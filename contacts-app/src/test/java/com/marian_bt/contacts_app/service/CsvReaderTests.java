@@ -0,0 +1,80 @@
+package com.marian_bt.contacts_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTests {
+
+	@Test
+	void readsQuotedDelimitersEscapedQuotesAndLineBreaks() throws IOException {
+		String csv = "email,postAddress,comment\r\n" +
+				"a@x.org,\"Main St 1,\r\nBuilding B\",\"She said \"\"hi\"\"\"\r\n" +
+				"b@x.org,plain,\n";
+
+		List<List<String>> records = readAll(new CsvReader(new StringReader(csv), ','));
+
+		assertEquals(3, records.size());
+		assertEquals(List.of("a@x.org", "Main St 1,\r\nBuilding B", "She said \"hi\""), records.get(1));
+		assertEquals(List.of("b@x.org", "plain", ""), records.get(2));
+	}
+
+	@Test
+	void skipsByteOrderMarkAndTracksRecordLines() throws IOException {
+		CsvReader reader = new CsvReader(new StringReader("\uFEFFemail\n\"multi\nline\"\n\nlast"), ',');
+
+		assertTrue(reader.next());
+		assertEquals("email", reader.value(0));
+		assertTrue(reader.next());
+		assertEquals(2, reader.recordLine());
+		assertTrue(reader.next());
+		assertTrue(reader.isBlank());
+		assertTrue(reader.next());
+		assertEquals(5, reader.recordLine());
+		assertEquals("last", reader.value(0));
+		assertEquals(false, reader.next());
+	}
+
+	@Test
+	void supportsOtherDelimitersAndSpacesBeforeQuotes() throws IOException {
+		List<List<String>> records = readAll(new CsvReader(new StringReader("a; \"b;c\" ;d\"e\rf;g"), ';'));
+
+		assertEquals(List.of(List.of("a", "b;c", "d\"e"), List.of("f", "g")), records);
+	}
+
+	@Test
+	void failsOnRecordsLongerThanTheLimit() {
+		CsvReader reader = new CsvReader(new StringReader("ok\n\"never closed," + "x".repeat(2000)), ',', 1024);
+
+		assertThrows(ContactImportException.class, () -> readAll(reader));
+	}
+
+	@Test
+	void failsOnQuotedFieldOpenAtEndOfInput() throws IOException {
+		CsvReader reader = new CsvReader(new StringReader("ok\n\nfirst,\"never\nclosed,x"), ',');
+
+		assertEquals(true, reader.next());
+		assertEquals(true, reader.next());
+		ContactImportException e = assertThrows(ContactImportException.class, reader::next);
+		assertTrue(e.getMessage().contains("line 3"), e.getMessage());
+	}
+
+	private static List<List<String>> readAll(CsvReader reader) throws IOException {
+		List<List<String>> records = new ArrayList<>();
+		while (reader.next()) {
+			List<String> record = new ArrayList<>();
+			for (int i = 0; i < reader.size(); i++) {
+				record.add(reader.value(i));
+			}
+			records.add(record);
+		}
+		return records;
+	}
+}
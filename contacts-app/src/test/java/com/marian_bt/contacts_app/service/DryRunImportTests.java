@@ -0,0 +1,115 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:dry-run;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+		"contacts.import.chunk-size=3",
+		"contacts.import.validation-threads=2"
+})
+class DryRunImportTests {
+
+	private static final String HEADER = "email,firstName,lastName,institution,gender\n";
+	private static final String GENDER_ERROR = "gender: Gender must be one of : male, female, diverse.";
+
+	@Autowired
+	private ContactService contactService;
+
+	@Autowired
+	private ContactRepository contactRepository;
+
+	@BeforeEach
+	void setUp() {
+		contactRepository.deleteAll();
+		contactRepository.saveAll(List.of(contact("c1@example.org", "Ann", "Lee"), contact("c2@example.org", "Bo", "Ng")));
+	}
+
+	@Test
+	void classifiesEveryRowWithoutWritingAnything() {
+		Map<String, LocalDateTime> before = updatedAtByEmail();
+		StringWriter rejects = new StringWriter();
+
+		ContactImportPreview preview = preview(HEADER
+				+ "c1@example.org,Ann,Lee,Uni,Female\n"
+				+ "C2@example.org,Bo,Ngo,Uni,male\n"
+				+ "c3@example.org,Cy,Lee,Uni,diverse\n"
+				+ "\n"
+				+ "C3@Example.org,Cy,Lee,Uni,diverse\n"
+				+ "c4@example.org,Di,Lee,Uni,robot\n"
+				+ ",Ed,Lee,Uni,male\n", rejects);
+
+		assertEquals(1, preview.getUnchanged());
+		assertEquals(1, preview.getUpdates());
+		assertEquals(1, preview.getInserts());
+		assertEquals(1, preview.getDuplicates());
+		assertEquals(2, preview.getRejected());
+		assertEquals(6, preview.getTotal());
+		assertEquals(before, updatedAtByEmail());
+	}
+
+	@Test
+	void writesRejectedRowsWithTheirLineAndErrors() {
+		StringWriter rejects = new StringWriter();
+
+		preview(HEADER
+				+ "c3@example.org,Cy,Lee,Uni,diverse\n"
+				+ "c4@example.org,Di,\"Lee \"\"Jr\"\"\",Uni,robot\n"
+				+ "\"c5@example.org\",,Lee,,male\n", rejects);
+
+		assertEquals(List.of(
+				"line,errors,email,title,firstName,lastName,gender,phone1,phone2,institution,faculty,studyDomain,"
+						+ "persGroup,function,country,coilExp,mobilityFin,contactedByIngenium",
+				"3,\"" + GENDER_ERROR + "\"," + rejected("c4@example.org", "Di", "Lee \"\"Jr\"\"", "robot", "Uni"),
+				"4,\"firstName: must not be blank; institution: must not be blank\","
+						+ rejected("c5@example.org", "", "Lee", "male", "")),
+				rejects.toString().lines().toList());
+	}
+
+	/** The quoted values of a rejected row in column order, with the unmapped columns empty. */
+	private static String rejected(String email, String firstName, String lastName, String gender, String institution) {
+		return String.join(",", "\"" + email + "\"", "\"\"", "\"" + firstName + "\"", "\"" + lastName + "\"",
+				"\"" + gender + "\"", "\"\"", "\"\"", "\"" + institution + "\"",
+				"\"\"", "\"\"", "\"\"", "\"\"", "\"\"", "\"\"", "\"\"", "\"\"");
+	}
+
+	private ContactImportPreview preview(String csv, StringWriter rejects) {
+		return contactService.previewImport(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+				ContactImportFormat.CSV, ContactImportProgress.NONE, rejects);
+	}
+
+	private Map<String, LocalDateTime> updatedAtByEmail() {
+		return contactRepository.findAll().stream()
+				.collect(Collectors.toMap(Contact::getEmail, Contact::getUpdatedAt));
+	}
+
+	private static Contact contact(String email, String firstName, String lastName) {
+		Contact contact = new Contact();
+		contact.setEmail(email);
+		contact.setFirstName(firstName);
+		contact.setLastName(lastName);
+		contact.setInstitution("Uni");
+		contact.setGender("female");
+		return contact;
+	}
+}
@@ -0,0 +1,173 @@
+package com.marian_bt.contacts_app.service;
+
+import com.marian_bt.contacts_app.domain.Contact;
+import com.marian_bt.contacts_app.domain.ContactImportCheckpoint;
+import com.marian_bt.contacts_app.repository.ContactImportCheckpointRepository;
+import com.marian_bt.contacts_app.repository.ContactRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:partitioned-import;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+		"contacts.import.parallelism=3",
+		"contacts.import.chunk-size=2",
+		"contacts.import.spool-dir=${java.io.tmpdir}/contacts-import-partition-tests"
+})
+class PartitionedImportTests {
+
+	private static final String HEADER = "email,firstName,lastName,institution,gender\n";
+
+	@Autowired
+	private ContactService contactService;
+
+	@Autowired
+	private ContactImportJobService jobService;
+
+	@Autowired
+	private ContactRepository contactRepository;
+
+	@Autowired
+	private ContactImportCheckpointRepository checkpointRepository;
+
+	@MockitoSpyBean
+	private ContactImportWriter importWriter;
+
+	@BeforeEach
+	void setUp() {
+		contactRepository.deleteAll();
+		checkpointRepository.deleteAll();
+	}
+
+	@Test
+	void rowsOfOneEmailGoToOneWorkerInFileOrder() {
+		Map<String, Set<String>> workersByEmail = new ConcurrentHashMap<>();
+		doAnswer(invocation -> {
+			List<String[]> rows = invocation.getArgument(1);
+			for (String[] row : rows) {
+				workersByEmail.computeIfAbsent(ContactCsv.email(row).toLowerCase(Locale.ROOT),
+						email -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+			}
+			return invocation.callRealMethod();
+		}).when(importWriter).writeChunk(any(), any());
+
+		StringBuilder csv = new StringBuilder(HEADER).append(rows(1, 20, "Lee"));
+		// later rows for the same addresses, in another case, must win
+		csv.append("C3@Example.org,Ann,Last,Uni,female\n").append("c15@EXAMPLE.org,Ann,Last,Uni,female\n");
+
+		int imported = importCsv(csv.toString());
+
+		assertEquals(22, imported);
+		assertEquals(20, contactRepository.count());
+		assertTrue(workersByEmail.values().stream().allMatch(workers -> workers.size() == 1), workersByEmail.toString());
+		assertTrue(workersByEmail.values().stream().flatMap(Set::stream).distinct().count() > 1,
+				"rows were spread over the workers");
+		Map<String, String> lastNames = lastNamesByEmail();
+		assertEquals("Last", lastNames.get("c3@example.org"));
+		assertEquals("Last", lastNames.get("c15@example.org"));
+		assertEquals("Lee", lastNames.get("c4@example.org"));
+	}
+
+	@Test
+	void aFailingWorkerFailsTheImport() {
+		doAnswer(invocation -> {
+			List<String[]> rows = invocation.getArgument(1);
+			if (rows.stream().anyMatch(row -> ContactCsv.email(row).equals("c7@example.org"))) {
+				throw new DataAccessResourceFailureException("connection lost");
+			}
+			return invocation.callRealMethod();
+		}).when(importWriter).writeChunk(any(), any());
+
+		ContactImportException e = assertThrows(ContactImportException.class,
+				() -> importCsv(HEADER + rows(1, 30, "Lee")));
+
+		assertTrue(e.getMessage().contains("connection lost"), e.getMessage());
+		assertTrue(contactRepository.findAll().stream().noneMatch(c -> c.getEmail().equals("c7@example.org")));
+	}
+
+	@Test
+	void aResumedPartitionedImportSkipsTheRowsEachWorkerCommitted() throws Exception {
+		AtomicBoolean failing = new AtomicBoolean(true);
+		doAnswer(invocation -> {
+			List<String[]> rows = invocation.getArgument(1);
+			if (failing.get() && rows.stream().anyMatch(row -> ContactCsv.email(row).equals("c17@example.org"))) {
+				// let another worker commit first, so the failure is resumable
+				for (int i = 0; i < 500 && contactRepository.count() == 0; i++) {
+					Thread.sleep(10);
+				}
+				throw new DataAccessResourceFailureException("connection lost");
+			}
+			return invocation.callRealMethod();
+		}).when(importWriter).writeChunk(any(), any());
+
+		ContactImportJob failed = finished(jobService.submit(new MockMultipartFile("file", "contacts.csv", "text/csv",
+				(HEADER + rows(1, 30, "Lee")).getBytes(StandardCharsets.UTF_8))));
+		assertEquals(ContactImportJob.Status.FAILED, failed.getStatus());
+		assertTrue(failed.isResumable());
+		long committed = contactRepository.count();
+		assertEquals(3, checkpointRepository.findByJobIdOrderByPartitionNo(failed.getId()).size());
+		assertEquals(committed, checkpointRepository.findByJobIdOrderByPartitionNo(failed.getId()).stream()
+				.mapToLong(ContactImportCheckpoint::getCommittedRows).sum());
+
+		failing.set(false);
+		ContactImportJob resumed = finished(jobService.resume(failed.getId()));
+
+		assertEquals(ContactImportJob.Status.COMPLETED, resumed.getStatus());
+		assertEquals(committed, resumed.getRowsSkipped());
+		assertEquals(30 - committed, resumed.getRowsProcessed());
+		assertEquals(30, contactRepository.count());
+		assertEquals(30, lastNamesByEmail().size());
+	}
+
+	private int importCsv(String body) {
+		return contactService.importContacts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+				ContactImportFormat.CSV, ContactImportProgress.NONE, ImportCheckpoint.NONE);
+	}
+
+	private Map<String, String> lastNamesByEmail() {
+		return contactRepository.findAll().stream()
+				.collect(Collectors.toMap(c -> c.getEmail().toLowerCase(Locale.ROOT), Contact::getLastName));
+	}
+
+	private static ContactImportJob finished(ContactImportJob job) throws InterruptedException {
+		for (int i = 0; i < 500 && !job.isFinished(); i++) {
+			Thread.sleep(20);
+		}
+		assertTrue(job.isFinished(), "job did not finish");
+		return job;
+	}
+
+	private static String rows(int from, int to, String lastName) {
+		StringBuilder rows = new StringBuilder();
+		for (int i = from; i <= to; i++) {
+			rows.append("c").append(i).append("@example.org,Ann,").append(lastName).append(",Uni,female\n");
+		}
+		return rows.toString();
+	}
+}
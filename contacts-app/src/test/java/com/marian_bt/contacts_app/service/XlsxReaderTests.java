@@ -0,0 +1,168 @@
+package com.marian_bt.contacts_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class XlsxReaderTests {
+
+	private static final String WORKBOOK = """
+			<workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" \
+			xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">\
+			<sheets><sheet name="First" sheetId="2" r:id="rId7"/><sheet name="Second" sheetId="1" r:id="rId1"/></sheets>\
+			</workbook>""";
+
+	private static final String WORKBOOK_RELS = """
+			<Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+			<Relationship Id="rId1" Type="worksheet" Target="worksheets/sheet1.xml"/>\
+			<Relationship Id="rId7" Type="worksheet" Target="/xl/worksheets/sheet2.xml"/>\
+			<Relationship Id="rId9" Type="hyperlink" Target="https://example.com/" TargetMode="External"/>\
+			</Relationships>""";
+
+	private static final String SHARED_STRINGS = """
+			<sst xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main">\
+			<si><t>email</t></si><si><r><t>ann@</t></r><r><t>example.com</t></r><rPh><t>x</t></rPh></si></sst>""";
+
+	@Test
+	void resolvesSharedStringsStoredAfterTheSheet() throws IOException {
+		byte[] xlsx = xlsx(XlsxReader.FIRST_SHEET, sheet(row("1", cell("A1", "s", "<v>0</v>")),
+				row("2", cell("A2", "s", "<v>1</v>"))), XlsxReader.SHARED_STRINGS, SHARED_STRINGS);
+
+		assertEquals(List.of(List.of("email"), List.of("ann@example.com")), readAll(xlsx));
+	}
+
+	@Test
+	void resolvesSharedStringsStoredBeforeTheSheet() throws IOException {
+		byte[] xlsx = xlsx(XlsxReader.SHARED_STRINGS, SHARED_STRINGS,
+				XlsxReader.FIRST_SHEET, sheet(row("1", cell("A1", "s", "<v>1</v>"))));
+
+		assertEquals(List.of(List.of("ann@example.com")), readAll(xlsx));
+	}
+
+	@Test
+	void readsInlineStringsBooleansAndNumbers() throws IOException {
+		byte[] xlsx = xlsx(XlsxReader.FIRST_SHEET, sheet(row("1",
+				cell("A1", "inlineStr", "<is><r><t>Ann</t></r><r><t> Lee</t></r></is>"),
+				cell("B1", "b", "<v>1</v>"),
+				cell("C1", null, "<v>4915112345</v>"),
+				cell("D1", "inlineStr", ""))));
+
+		assertEquals(List.of(List.of("Ann Lee", "true", "4915112345", "")), readAll(xlsx));
+	}
+
+	@Test
+	void fillsSkippedCellsAndRowsWithoutReferences() throws IOException {
+		byte[] xlsx = xlsx(XlsxReader.FIRST_SHEET, sheet(
+				row("3", cell("B3", "inlineStr", "<is><t>b</t></is>"), cell("D3", "inlineStr", "<is><t>d</t></is>")),
+				row(null, cell(null, "inlineStr", "<is><t>x</t></is>"), cell(null, "inlineStr", "<is><t>y</t></is>"))));
+
+		try (XlsxReader reader = new XlsxReader(new ByteArrayInputStream(xlsx))) {
+			assertEquals(true, reader.next());
+			assertEquals(3, reader.recordLine());
+			assertEquals(4, reader.size());
+			assertEquals("", reader.value(0));
+			assertEquals("b", reader.value(1));
+			assertEquals("", reader.value(2));
+			assertEquals("d", reader.value(3));
+			assertEquals(true, reader.next());
+			assertEquals(4, reader.recordLine());
+			assertEquals("y", reader.value(1));
+			assertEquals(false, reader.next());
+		}
+	}
+
+	@Test
+	void readsTheFirstSheetListedInTheWorkbook() throws IOException {
+		String second = sheet(row("1", cell("A1", "inlineStr", "<is><t>second</t></is>")));
+		String first = sheet(row("1", cell("A1", "inlineStr", "<is><t>first</t></is>")));
+
+		byte[] workbookLast = xlsx("xl/worksheets/sheet1.xml", second, "xl/worksheets/sheet2.xml", first,
+				XlsxReader.WORKBOOK, WORKBOOK, XlsxReader.WORKBOOK_RELS, WORKBOOK_RELS);
+		assertEquals(List.of(List.of("first")), readAll(workbookLast));
+
+		byte[] workbookFirst = xlsx(XlsxReader.WORKBOOK, WORKBOOK, XlsxReader.WORKBOOK_RELS, WORKBOOK_RELS,
+				"xl/worksheets/sheet1.xml", second, "xl/worksheets/sheet2.xml", first);
+		assertEquals(List.of(List.of("first")), readAll(workbookFirst));
+	}
+
+	@Test
+	void failsWithoutTheFirstSheet() throws IOException {
+		byte[] xlsx = xlsx(XlsxReader.WORKBOOK, WORKBOOK, XlsxReader.WORKBOOK_RELS, WORKBOOK_RELS,
+				"xl/worksheets/sheet1.xml", sheet(""));
+
+		assertThrows(ContactImportException.class, () -> new XlsxReader(new ByteArrayInputStream(xlsx)));
+	}
+
+	@Test
+	void failsOnMalformedReferences() throws IOException {
+		for (String sheet : List.of(
+				sheet(row("1", cell("1A", "inlineStr", "<is><t>x</t></is>"))),
+				sheet(row("1", cell("XFE1", "inlineStr", "<is><t>x</t></is>"))),
+				sheet(row("one", cell("A1", "inlineStr", "<is><t>x</t></is>"))),
+				sheet(row("1", cell("A1", "s", "<v>first</v>"))),
+				sheet(row("1", cell("A1", "s", "<v>5</v>"))))) {
+			byte[] xlsx = xlsx(XlsxReader.SHARED_STRINGS, SHARED_STRINGS, XlsxReader.FIRST_SHEET, sheet);
+
+			assertThrows(ContactImportException.class, () -> readAll(xlsx), sheet);
+		}
+	}
+
+	@Test
+	void failsOnSpilledSheetsLargerThanTheLimit() throws IOException {
+		byte[] xlsx = xlsx(XlsxReader.FIRST_SHEET, sheet(row("1", cell("A1", "inlineStr", "<is><t>" + "x".repeat(4096) + "</t></is>"))),
+				XlsxReader.SHARED_STRINGS, SHARED_STRINGS);
+
+		assertThrows(ContactImportException.class, () ->
+				new XlsxReader(new ByteArrayInputStream(xlsx), XlsxReader.DEFAULT_MAX_SHARED_STRING_CHARS, 1024));
+	}
+
+	private static String sheet(String... rows) {
+		return "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+				+ String.join("", rows) + "</sheetData></worksheet>";
+	}
+
+	private static String row(String number, String... cells) {
+		return (number != null ? "<row r=\"" + number + "\">" : "<row>") + String.join("", cells) + "</row>";
+	}
+
+	private static String cell(String ref, String type, String content) {
+		return "<c" + (ref != null ? " r=\"" + ref + "\"" : "") + (type != null ? " t=\"" + type + "\"" : "") + ">"
+				+ content + "</c>";
+	}
+
+	private static byte[] xlsx(String... entries) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(out)) {
+			for (int i = 0; i < entries.length; i += 2) {
+				zip.putNextEntry(new ZipEntry(entries[i]));
+				zip.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+				zip.closeEntry();
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static List<List<String>> readAll(byte[] xlsx) throws IOException {
+		List<List<String>> records = new ArrayList<>();
+		try (XlsxReader reader = new XlsxReader(new ByteArrayInputStream(xlsx))) {
+			while (reader.next()) {
+				List<String> record = new ArrayList<>();
+				for (int i = 0; i < reader.size(); i++) {
+					record.add(reader.value(i));
+				}
+				records.add(record);
+			}
+		}
+		return records;
+	}
+}